@@ -19,5 +19,15 @@ package io.github.cloudiator.deployment.config;
 public class Constants {
 
   public static final String INSTALL_MELODIC_TOOLS = "deployment.install.melodic.tools";
+  public static final String SPARK_INSTALL_PARALLELISM = "deployment.spark.install.parallelism";
+  public static final String SPARK_POLL_INTERVAL = "deployment.spark.pollInterval";
+  public static final String SPARK_LIVY_CONNECT_TIMEOUT = "deployment.spark.livy.connectTimeout";
+  public static final String SPARK_LIVY_SOCKET_TIMEOUT = "deployment.spark.livy.socketTimeout";
+  public static final String LANCE_DEPLOYMENT_PARALLELISM = "deployment.lance.parallelism";
+  public static final String LANCE_DEPLOYMENT_POLL_INTERVAL = "deployment.lance.pollInterval";
+  public static final String LANCE_DEPLOYMENT_TIMEOUT = "deployment.lance.timeout";
+  public static final String LANCE_STATUS_PARALLELISM = "deployment.lance.status.parallelism";
+  public static final String LANCE_STATUS_BATCH_WINDOW = "deployment.lance.status.batchWindow";
+  public static final String LANCE_STATUS_CONNECT_TIMEOUT = "deployment.lance.status.connectTimeout";
 
 }
@@ -20,6 +20,7 @@ import com.google.common.base.MoreObjects;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.util.concurrent.TimeUnit;
 
 public class DeploymentContext {
 
@@ -42,6 +43,86 @@ public class DeploymentContext {
     }
   }
 
+  public int sparkInstallParallelism() {
+    try {
+      return config.getInt(Constants.SPARK_INSTALL_PARALLELISM);
+    } catch (Exception e) {
+      return 10;
+    }
+  }
+
+  public long sparkPollInterval() {
+    try {
+      return config.getLong(Constants.SPARK_POLL_INTERVAL);
+    } catch (Exception e) {
+      return 10000;
+    }
+  }
+
+  public int sparkLivyConnectTimeout() {
+    try {
+      return config.getInt(Constants.SPARK_LIVY_CONNECT_TIMEOUT);
+    } catch (Exception e) {
+      return 10000;
+    }
+  }
+
+  public int sparkLivySocketTimeout() {
+    try {
+      return config.getInt(Constants.SPARK_LIVY_SOCKET_TIMEOUT);
+    } catch (Exception e) {
+      return 60000;
+    }
+  }
+
+  public int lanceDeploymentParallelism() {
+    try {
+      return config.getInt(Constants.LANCE_DEPLOYMENT_PARALLELISM);
+    } catch (Exception e) {
+      return 10;
+    }
+  }
+
+  public long lanceDeploymentPollInterval() {
+    try {
+      return config.getLong(Constants.LANCE_DEPLOYMENT_POLL_INTERVAL);
+    } catch (Exception e) {
+      return 2000;
+    }
+  }
+
+  public long lanceDeploymentTimeout() {
+    try {
+      return config.getLong(Constants.LANCE_DEPLOYMENT_TIMEOUT);
+    } catch (Exception e) {
+      return TimeUnit.MINUTES.toMillis(30);
+    }
+  }
+
+  public int lanceStatusParallelism() {
+    try {
+      return config.getInt(Constants.LANCE_STATUS_PARALLELISM);
+    } catch (Exception e) {
+      return 4;
+    }
+  }
+
+  public long lanceStatusBatchWindow() {
+    try {
+      return config.getLong(Constants.LANCE_STATUS_BATCH_WINDOW);
+    } catch (Exception e) {
+      return 100;
+    }
+  }
+
+  public int lanceStatusConnectTimeout() {
+    try {
+      return config.getInt(Constants.LANCE_STATUS_CONNECT_TIMEOUT);
+    } catch (Exception e) {
+      return 5000;
+    }
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this).add("config", config).toString();
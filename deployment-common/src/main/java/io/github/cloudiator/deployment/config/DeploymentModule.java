@@ -37,6 +37,28 @@ public class DeploymentModule extends AbstractModule {
     bindConstant().annotatedWith(Names.named(Constants.INSTALL_MELODIC_TOOLS))
         .to(deploymentContext.installMelodicTools());
 
+    bindConstant().annotatedWith(Names.named(Constants.SPARK_INSTALL_PARALLELISM))
+        .to(deploymentContext.sparkInstallParallelism());
+
+    bindConstant().annotatedWith(Names.named(Constants.SPARK_POLL_INTERVAL))
+        .to(deploymentContext.sparkPollInterval());
+    bindConstant().annotatedWith(Names.named(Constants.SPARK_LIVY_CONNECT_TIMEOUT))
+        .to(deploymentContext.sparkLivyConnectTimeout());
+    bindConstant().annotatedWith(Names.named(Constants.SPARK_LIVY_SOCKET_TIMEOUT))
+        .to(deploymentContext.sparkLivySocketTimeout());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_DEPLOYMENT_PARALLELISM))
+        .to(deploymentContext.lanceDeploymentParallelism());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_DEPLOYMENT_POLL_INTERVAL))
+        .to(deploymentContext.lanceDeploymentPollInterval());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_DEPLOYMENT_TIMEOUT))
+        .to(deploymentContext.lanceDeploymentTimeout());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_STATUS_PARALLELISM))
+        .to(deploymentContext.lanceStatusParallelism());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_STATUS_BATCH_WINDOW))
+        .to(deploymentContext.lanceStatusBatchWindow());
+    bindConstant().annotatedWith(Names.named(Constants.LANCE_STATUS_CONNECT_TIMEOUT))
+        .to(deploymentContext.lanceStatusConnectTimeout());
+
     install(new FactoryModuleBuilder().implement(VariableContext.class, VariableContextImpl.class)
         .build(VariableContextFactory.class));
 
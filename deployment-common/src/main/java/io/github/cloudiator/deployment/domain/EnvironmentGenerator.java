@@ -19,8 +19,8 @@ package io.github.cloudiator.deployment.domain;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import io.github.cloudiator.deployment.graph.Graphs;
-import io.github.cloudiator.deployment.graph.ScheduleGraph;
-import io.github.cloudiator.deployment.graph.ScheduleGraph.CommunicationInstanceEdge;
+import io.github.cloudiator.deployment.graph.ProcessDependencies;
+import java.util.Map.Entry;
 
 public class EnvironmentGenerator {
 
@@ -45,14 +45,14 @@ public class EnvironmentGenerator {
   public Environment generate(CloudiatorProcess cloudiatorProcess) {
 
     Environment environment = new Environment();
-    final ScheduleGraph scheduleGraph = Graphs.scheduleGraph(schedule, job);
+    final ProcessDependencies processDependencies = Graphs.processDependencies(schedule, job);
 
-    for (CloudiatorProcess dependency : scheduleGraph.getDependencies(cloudiatorProcess)) {
+    for (Entry<Communication, CloudiatorProcess> dependency : processDependencies
+        .dependencies(cloudiatorProcess).entries()) {
 
-      final CommunicationInstanceEdge edge = scheduleGraph.getEdge(dependency, cloudiatorProcess);
-      if (dependency.endpoint().isPresent()) {
-        environment.put(String.format(PUBLIC_DOWNSTREAM, edge.getCommunication().portRequired()),
-            dependency.endpoint().get());
+      if (dependency.getValue().endpoint().isPresent()) {
+        environment.put(String.format(PUBLIC_DOWNSTREAM, dependency.getKey().portRequired()),
+            dependency.getValue().endpoint().get());
       }
     }
 
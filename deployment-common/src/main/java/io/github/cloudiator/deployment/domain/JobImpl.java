@@ -21,15 +21,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects.ToStringHelper;
-import de.uniulm.omi.cloudiator.util.StreamUtil;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import io.github.cloudiator.deployment.graph.Graphs;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.domain.Optimization;
 import org.cloudiator.matchmaking.domain.Requirement;
@@ -41,7 +42,61 @@ class JobImpl extends JobNewImpl implements Job {
 
   private final String id;
   private final String userId;
+  private final Supplier<PortIndex> portIndex = Suppliers.memoize(() -> new PortIndex(this));
+
+  /**
+   * Index of the tasks, ports and communications of the job by name. Built on first use, so all
+   * lookups of a job take constant time instead of scanning all tasks.
+   */
+  private static class PortIndex {
+
+    private final ImmutableListMultimap<String, Task> tasksByName;
+    private final ImmutableSetMultimap<String, Task> providingTasks;
+    private final ImmutableSetMultimap<String, Task> requiringTasks;
+    private final ImmutableListMultimap<String, PortProvided> providedPorts;
+    private final ImmutableListMultimap<String, PortRequired> requiredPorts;
+    private final ImmutableSetMultimap<String, Communication> communications;
+
+    private PortIndex(Job job) {
+
+      final ImmutableListMultimap.Builder<String, Task> tasksByName = ImmutableListMultimap
+          .builder();
+      final ImmutableSetMultimap.Builder<String, Task> providingTasks = ImmutableSetMultimap
+          .builder();
+      final ImmutableSetMultimap.Builder<String, Task> requiringTasks = ImmutableSetMultimap
+          .builder();
+      final ImmutableListMultimap.Builder<String, PortProvided> providedPorts = ImmutableListMultimap
+          .builder();
+      final ImmutableListMultimap.Builder<String, PortRequired> requiredPorts = ImmutableListMultimap
+          .builder();
+
+      for (Task task : job.tasks()) {
+        tasksByName.put(task.name(), task);
+        for (PortProvided portProvided : task.providedPorts()) {
+          providingTasks.put(portProvided.name(), task);
+          providedPorts.put(portProvided.name(), portProvided);
+        }
+        for (PortRequired portRequired : task.requiredPorts()) {
+          requiringTasks.put(portRequired.name(), task);
+          requiredPorts.put(portRequired.name(), portRequired);
+        }
+      }
+
+      final ImmutableSetMultimap.Builder<String, Communication> communications = ImmutableSetMultimap
+          .builder();
+      for (Communication communication : job.communications()) {
+        communications.put(communication.portProvided(), communication);
+        communications.put(communication.portRequired(), communication);
+      }
 
+      this.tasksByName = tasksByName.build();
+      this.providingTasks = providingTasks.build();
+      this.requiringTasks = requiringTasks.build();
+      this.providedPorts = providedPorts.build();
+      this.requiredPorts = requiredPorts.build();
+      this.communications = communications.build();
+    }
+  }
 
   JobImpl(String id, String userId, String name, Set<Task> tasks,
       Set<Communication> communications, Set<Requirement> requirements,
@@ -64,6 +119,20 @@ class JobImpl extends JobNewImpl implements Job {
     return true;
   }
 
+  private static <T> Optional<T> only(Collection<T> elements, String name) {
+    if (elements.size() > 1) {
+      throw new IllegalStateException(String
+          .format("Expected only one element for %s but found %s: %s", name, elements.size(),
+              Joiner.on(",").join(elements)));
+    }
+    return elements.stream().findFirst();
+  }
+
+  @Override
+  public Optional<Task> getTask(String name) {
+    checkNotNull(name, "name is null");
+    return only(portIndex.get().tasksByName.get(name), name);
+  }
 
   @Override
   public String userId() {
@@ -75,9 +144,8 @@ class JobImpl extends JobNewImpl implements Job {
     checkArgument(communications().contains(communication),
         String.format("Job does not contain communication %s.", communication));
 
-    return this.tasks().stream().filter(task -> task.providedPorts().stream().map(Port::name)
-        .collect(Collectors.toSet())
-        .contains(communication.portProvided())).collect(StreamUtil.getOnly())
+    return only(portIndex.get().providingTasks.get(communication.portProvided()),
+        communication.portProvided())
         .orElseThrow(() -> new IllegalStateException(
             String.format(
                 "Communication %s references provided port %s but Job %s contains no task providing this port",
@@ -89,9 +157,8 @@ class JobImpl extends JobNewImpl implements Job {
     checkArgument(communications().contains(communication),
         String.format("Job does not contain communication %s.", communication));
 
-    return this.tasks().stream().filter(task -> task.requiredPorts().stream().map(Port::name)
-        .collect(Collectors.toSet())
-        .contains(communication.portRequired())).collect(StreamUtil.getOnly())
+    return only(portIndex.get().requiringTasks.get(communication.portRequired()),
+        communication.portRequired())
         .orElseThrow(() -> new IllegalStateException(
             String.format(
                 "Communication %s references required port %s but Job %s contains no task requiring this port",
@@ -116,12 +183,10 @@ class JobImpl extends JobNewImpl implements Job {
     checkArgument(communications().contains(communication),
         String.format("Job does not contain communication %s.", communication));
 
-    return this.tasks().stream().flatMap(
-        (Function<Task, Stream<PortRequired>>) task -> task.requiredPorts().stream())
-        .filter(portRequired -> portRequired.name().equals(communication.portRequired()))
-        .collect(StreamUtil.getOnly()).orElseThrow(() -> new IllegalStateException(String.format(
-            "Communication %s references required port %s but no task of Job %s has this port attached.",
-            communication, communication.portRequired(), this)));
+    return only(portIndex.get().requiredPorts.get(communication.portRequired()),
+        communication.portRequired()).orElseThrow(() -> new IllegalStateException(String.format(
+        "Communication %s references required port %s but no task of Job %s has this port attached.",
+        communication, communication.portRequired(), this)));
   }
 
   @Override
@@ -129,12 +194,10 @@ class JobImpl extends JobNewImpl implements Job {
     checkArgument(communications().contains(communication),
         String.format("Job does not contain communication %s.", communication));
 
-    return this.tasks().stream().flatMap(
-        (Function<Task, Stream<PortProvided>>) task -> task.providedPorts().stream())
-        .filter(portProvided -> portProvided.name().equals(communication.portProvided()))
-        .collect(StreamUtil.getOnly()).orElseThrow(() -> new IllegalStateException(String.format(
-            "Communication %s references provided port %s but no task of Job %s has this port attached.",
-            communication, communication.portProvided(), this)));
+    return only(portIndex.get().providedPorts.get(communication.portProvided()),
+        communication.portProvided()).orElseThrow(() -> new IllegalStateException(String.format(
+        "Communication %s references provided port %s but no task of Job %s has this port attached.",
+        communication, communication.portProvided(), this)));
 
   }
 
@@ -169,11 +232,7 @@ class JobImpl extends JobNewImpl implements Job {
 
   @Override
   public Set<Communication> attachedCommunications(Port port) {
-
-    return communications().stream().filter(
-        communication -> communication.portProvided().equals(port.name()) || communication
-            .portRequired()
-            .equals(port.name())).collect(Collectors.toSet());
+    return portIndex.get().communications.get(port.name());
   }
 
   @Override
@@ -20,24 +20,56 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import io.github.cloudiator.domain.Node;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
+import javax.annotation.Nullable;
+
+/**
+ * Schedule keeping an immutable snapshot of its processes, indexed by task and by node.
+ * <p>
+ * The snapshot is built on the first read after a process was added and is shared by all
+ * subsequent reads, so the processes of a task or a node are looked up in constant time and the
+ * returned sets are never copied.
+ */
 public class ScheduleImpl implements Schedule {
 
   private final String id;
   private final String userId;
   private final String job;
   private final Set<CloudiatorProcess> processes;
+  @Nullable
+  private volatile Snapshot snapshot;
   private final Instantiation instantiation;
   private ScheduleState scheduleState;
 
+  private static class Snapshot {
+
+    private final ImmutableSet<CloudiatorProcess> processes;
+    private final ImmutableSetMultimap<String, CloudiatorProcess> processesByTask;
+    private final ImmutableSetMultimap<String, CloudiatorProcess> processesByNode;
+
+    private Snapshot(Set<CloudiatorProcess> processes) {
+      this.processes = ImmutableSet.copyOf(processes);
+
+      final ImmutableSetMultimap.Builder<String, CloudiatorProcess> byTask = ImmutableSetMultimap
+          .builder();
+      final ImmutableSetMultimap.Builder<String, CloudiatorProcess> byNode = ImmutableSetMultimap
+          .builder();
+      for (CloudiatorProcess cloudiatorProcess : this.processes) {
+        byTask.put(cloudiatorProcess.taskId(), cloudiatorProcess);
+        for (String node : cloudiatorProcess.nodes()) {
+          byNode.put(node, cloudiatorProcess);
+        }
+      }
+      this.processesByTask = byTask.build();
+      this.processesByNode = byNode.build();
+    }
+  }
+
   private ScheduleImpl(String id, String userId, String job,
       Instantiation instantiation, ScheduleState scheduleState) {
 
@@ -51,7 +83,7 @@ public class ScheduleImpl implements Schedule {
     this.job = job;
     this.userId = userId;
     this.instantiation = instantiation;
-    this.processes = new HashSet<>();
+    this.processes = new LinkedHashSet<>();
     this.scheduleState = scheduleState;
   }
 
@@ -65,6 +97,20 @@ public class ScheduleImpl implements Schedule {
     return new ScheduleImpl(id, userId, jobId, instantiation, scheduleState);
   }
 
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = new Snapshot(processes);
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
+
   @Override
   public String job() {
     return job;
@@ -77,7 +123,7 @@ public class ScheduleImpl implements Schedule {
 
   @Override
   public Set<CloudiatorProcess> processes() {
-    return ImmutableSet.copyOf(processes);
+    return snapshot().processes;
   }
 
   @Override
@@ -86,15 +132,18 @@ public class ScheduleImpl implements Schedule {
   }
 
   @Override
-  public Schedule addProcess(CloudiatorProcess cloudiatorProcess) {
-    processes.add(cloudiatorProcess);
+  public synchronized Schedule addProcess(CloudiatorProcess cloudiatorProcess) {
+    checkNotNull(cloudiatorProcess, "cloudiatorProcess is null");
+    if (processes.add(cloudiatorProcess)) {
+      snapshot = null;
+    }
     return this;
   }
 
   @Override
-  public Schedule addProcesses(Collection<? extends CloudiatorProcess> processes) {
-    this.processes.addAll(processes);
-    return null;
+  public synchronized Schedule addProcesses(Collection<? extends CloudiatorProcess> processes) {
+    processes.forEach(this::addProcess);
+    return this;
   }
 
   @Override
@@ -110,14 +159,7 @@ public class ScheduleImpl implements Schedule {
 
   @Override
   public boolean runsOnNode(Node node) {
-
-    for (CloudiatorProcess cloudiatorProcess : processes) {
-      if (cloudiatorProcess.nodes().contains(node.id())) {
-        return true;
-      }
-    }
-
-    return false;
+    return snapshot().processesByNode.containsKey(node.id());
   }
 
   @Override
@@ -131,27 +173,17 @@ public class ScheduleImpl implements Schedule {
 
   @Override
   public Set<CloudiatorProcess> processesForTask(Task task) {
-    return processes.stream().filter(
-        cloudiatorProcess -> cloudiatorProcess.taskId().equals(task.name()))
-        .collect(Collectors.toSet());
+    return snapshot().processesByTask.get(task.name());
   }
 
   @Override
   public Set<CloudiatorProcess> processesForNode(Node node) {
-
-    Set<CloudiatorProcess> processesForNode = new HashSet<>();
-    for (CloudiatorProcess cloudiatorProcess : processes) {
-      if (cloudiatorProcess.nodes().contains(node.id())) {
-        processesForNode.add(cloudiatorProcess);
-      }
-    }
-    return ImmutableSet.copyOf(processesForNode);
+    return snapshot().processesByNode.get(node.id());
   }
 
   @Override
   public Set<String> nodes() {
-    return processes().stream().flatMap(
-        (Function<CloudiatorProcess, Stream<String>>) cloudiatorProcess -> cloudiatorProcess.nodes().stream()).collect(Collectors.toSet());
+    return snapshot().processesByNode.keySet();
   }
 
   @Override
@@ -22,4 +22,8 @@ public class Graphs {
     return new ScheduleGraph(schedule, job);
   }
 
+  public static ProcessDependencies processDependencies(Schedule schedule, Job job) {
+    return ProcessDependencies.of(schedule, job);
+  }
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.graph;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.domain.Communication;
+import io.github.cloudiator.deployment.domain.Job;
+import io.github.cloudiator.deployment.domain.PortProvided;
+import io.github.cloudiator.deployment.domain.PortRequired;
+import io.github.cloudiator.deployment.domain.Schedule;
+import io.github.cloudiator.deployment.domain.Task;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Resolves the direct neighbours of a single process in the {@link ScheduleGraph} without
+ * building the graph of the entire schedule.
+ *
+ * <p>The lookups follow the communications of the task of the process and only visit the
+ * processes of the connected tasks, so their cost depends on the degree of the process and not
+ * on the size of the schedule.
+ */
+public class ProcessDependencies {
+
+  private final Schedule schedule;
+  private final Job job;
+
+  private ProcessDependencies(Schedule schedule, Job job) {
+    this.schedule = schedule;
+    this.job = job;
+  }
+
+  public static ProcessDependencies of(Schedule schedule, Job job) {
+    checkNotNull(schedule, "schedule is null");
+    checkNotNull(job, "job is null");
+    return new ProcessDependencies(schedule, job);
+  }
+
+  /**
+   * The processes the given process depends on, i.e. the processes providing the ports it
+   * requires. Equivalent to {@link ScheduleGraph#getDependencies(CloudiatorProcess)}.
+   *
+   * @param cloudiatorProcess the process
+   * @return the providing processes by the communication connecting them to the process
+   */
+  public SetMultimap<Communication, CloudiatorProcess> dependencies(
+      CloudiatorProcess cloudiatorProcess) {
+
+    final SetMultimap<Communication, CloudiatorProcess> dependencies = HashMultimap.create();
+    for (PortRequired requiredPort : task(cloudiatorProcess).requiredPorts()) {
+      for (Communication communication : job.attachedCommunications(requiredPort)) {
+        dependencies.putAll(communication,
+            schedule.processesForTask(job.providingTask(communication)));
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * The processes depending on the given process, i.e. the processes requiring a port it
+   * provides. Equivalent to {@link ScheduleGraph#getDependentProcesses(CloudiatorProcess)}.
+   *
+   * @param cloudiatorProcess the process
+   * @return the dependent processes
+   */
+  public Set<CloudiatorProcess> dependents(CloudiatorProcess cloudiatorProcess) {
+
+    final Set<CloudiatorProcess> dependents = new HashSet<>();
+    for (PortProvided providedPort : task(cloudiatorProcess).providedPorts()) {
+      for (Communication communication : job.attachedCommunications(providedPort)) {
+        dependents.addAll(schedule.processesForTask(job.requiredTask(communication)));
+      }
+    }
+    return dependents;
+  }
+
+  private Task task(CloudiatorProcess cloudiatorProcess) {
+    return schedule.getTask(cloudiatorProcess, job);
+  }
+}
@@ -149,11 +149,9 @@ public class ScheduleGraph {
 
             final Task requiredTask = job.requiredTask(communication);
 
-            for (CloudiatorProcess otherProcess : schedule.processes()) {
-              if (otherProcess.taskId().equals(requiredTask.name())) {
-                instanceGraph.addEdge(cloudiatorProcess, otherProcess,
-                    new CommunicationInstanceEdge(communication));
-              }
+            for (CloudiatorProcess otherProcess : schedule.processesForTask(requiredTask)) {
+              instanceGraph.addEdge(cloudiatorProcess, otherProcess,
+                  new CommunicationInstanceEdge(communication));
             }
           }
         }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.messaging;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.domain.Node;
+import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.cloudiator.messages.Installation.InstallationRequest;
+import org.cloudiator.messages.Installation.InstallationResponse;
+import org.cloudiator.messages.InstallationEntities.Installation;
+import org.cloudiator.messages.InstallationEntities.Tool;
+import org.cloudiator.messages.NodeEntities;
+import org.cloudiator.messaging.SettableFutureResponseCallback;
+import org.cloudiator.messaging.services.InstallationRequestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the tools installed on each node, so installation requests are only sent for tools
+ * that are not yet present. Concurrent requests for the same node share the in-flight
+ * installation. Entries are dropped by {@link NodeInstallationCacheSubscriber} once the node
+ * leaves the running state, installations still running at that time are not remembered.
+ */
+@Singleton
+public class NodeInstallationCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeInstallationCache.class);
+  private static final NodeToNodeMessageConverter NODE_MESSAGE_CONVERTER = NodeToNodeMessageConverter.INSTANCE;
+
+  private final InstallationRequestService installationRequestService;
+  private final Function<Node, NodeEntities.Node> nodeConverter;
+  private final Map<String, Set<Tool>> installed = new HashMap<>();
+  private final Map<String, InFlight> inFlight = new HashMap<>();
+
+  @Inject
+  public NodeInstallationCache(InstallationRequestService installationRequestService) {
+    this(installationRequestService, NODE_MESSAGE_CONVERTER::apply);
+  }
+
+  NodeInstallationCache(InstallationRequestService installationRequestService,
+      Function<Node, NodeEntities.Node> nodeConverter) {
+    this.installationRequestService = installationRequestService;
+    this.nodeConverter = nodeConverter;
+  }
+
+  private static class InFlight {
+
+    private final Set<Tool> tools;
+    private final ListenableFuture<?> future;
+    //the installation this one is serialized after, if it is still running
+    @Nullable
+    private final InFlight previous;
+    private boolean invalidated = false;
+
+    private InFlight(Set<Tool> tools, ListenableFuture<?> future, @Nullable InFlight previous) {
+      this.tools = tools;
+      this.future = future;
+      this.previous = previous;
+    }
+  }
+
+  /**
+   * Installs the given tools on the node, skipping all tools that are already installed.
+   *
+   * @param userId the owner of the node
+   * @param node the node to install the tools on
+   * @param tools the tools required on the node
+   * @return a future completing once all tools are installed on the node
+   */
+  public synchronized ListenableFuture<?> install(String userId, Node node, Set<Tool> tools) {
+
+    final Set<Tool> missing = EnumSet.noneOf(Tool.class);
+    missing.addAll(tools);
+    missing.removeAll(installed.getOrDefault(node.id(), Collections.emptySet()));
+
+    if (missing.isEmpty()) {
+      LOGGER.debug(String
+          .format("Tools %s are already installed on node %s, skipping installation.", tools,
+              node.id()));
+      return Futures.immediateFuture(null);
+    }
+
+    final InFlight running = inFlight.get(node.id());
+    if (running != null && running.tools.containsAll(missing)) {
+      LOGGER.debug(String
+          .format("Joining running installation of %s on node %s.", running.tools, node.id()));
+      return running.future;
+    }
+
+    final ListenableFuture<?> future;
+    if (running == null) {
+      future = request(userId, node, missing);
+    } else {
+      //installations on the same node are serialized
+      future = Futures.transformAsync(Futures.successfulAsList(running.future),
+          ignored -> request(userId, node, missing), MoreExecutors.directExecutor());
+    }
+
+    final Set<Tool> covered = EnumSet.copyOf(missing);
+    final ListenableFuture<?> joinable;
+    if (running == null) {
+      joinable = future;
+    } else {
+      //callers joining later may rely on the tools of the previous installation as well
+      covered.addAll(running.tools);
+      joinable = Futures.allAsList(running.future, future);
+    }
+    final InFlight installation = new InFlight(covered, joinable,
+        running == null || running.future.isDone() ? null : running);
+    inFlight.put(node.id(), installation);
+
+    Futures.addCallback(future, new FutureCallback<Object>() {
+      @Override
+      public void onSuccess(Object result) {
+        installed(node.id(), missing, installation);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        installed(node.id(), Collections.emptySet(), installation);
+      }
+    }, MoreExecutors.directExecutor());
+
+    return future;
+  }
+
+  private synchronized void installed(String nodeId, Set<Tool> tools, InFlight installation) {
+    if (!installation.invalidated && !tools.isEmpty()) {
+      installed.computeIfAbsent(nodeId, k -> EnumSet.noneOf(Tool.class)).addAll(tools);
+    }
+    inFlight.remove(nodeId, installation);
+  }
+
+  /**
+   * Forgets all tools installed on the node. Installations still running on the node will not
+   * record their tools once they complete.
+   *
+   * @param nodeId the id of the node
+   */
+  public synchronized void invalidate(String nodeId) {
+    if (installed.remove(nodeId) != null) {
+      LOGGER.debug(String.format("Dropped installed tools of node %s.", nodeId));
+    }
+    for (InFlight running = inFlight.remove(nodeId); running != null;
+        running = running.previous) {
+      running.invalidated = true;
+    }
+  }
+
+  private ListenableFuture<InstallationResponse> request(String userId, Node node,
+      Set<Tool> tools) {
+
+    LOGGER.info(String.format("Installing %s on node %s.", tools, node.id()));
+
+    final InstallationRequest installationRequest = InstallationRequest.newBuilder()
+        .setUserId(userId).setInstallation(
+            Installation.newBuilder().setNode(nodeConverter.apply(node)).addAllTool(tools)
+                .build()).build();
+
+    final SettableFutureResponseCallback<InstallationResponse, InstallationResponse> futureResponseCallback = SettableFutureResponseCallback
+        .create();
+
+    installationRequestService
+        .createInstallationRequestAsync(installationRequest, futureResponseCallback);
+
+    return futureResponseCallback;
+  }
+}
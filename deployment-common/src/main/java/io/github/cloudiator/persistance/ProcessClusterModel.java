@@ -28,12 +28,14 @@ import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import org.hibernate.annotations.DynamicUpdate;
 
 
 /**
  * Created by daniel on 12.12.14.
  */
 @Entity
+@DynamicUpdate
 class ProcessClusterModel extends ProcessModel {
 
   @Column(nullable = false)
@@ -22,8 +22,16 @@ import static com.google.common.base.Preconditions.checkState;
 import com.google.inject.Inject;
 import io.github.cloudiator.deployment.domain.CloudiatorClusterProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.CloudiatorSingleProcess;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -32,6 +40,7 @@ public class ProcessDomainRepository {
   private final ProcessModelRepository processModelRepository;
   private final ScheduleModelRepository scheduleModelRepository;
   private static final ProcessModelConverter PROCESS_MODEL_CONVERTER = ProcessModelConverter.INSTANCE;
+  private static final IpAddressConverter IP_ADDRESS_CONVERTER = new IpAddressConverter();
   private final IpAddressDomainRepository ipAddressDomainRepository;
   private final IpGroupModelRepository ipGroupModelRepository;
 
@@ -71,6 +80,11 @@ public class ProcessDomainRepository {
             Collectors.toList());
   }
 
+  public Map<String, ProcessState> getStatesByScheduleIdAndUser(String scheduleId,
+      String userId) {
+    return processModelRepository.findStatesByScheduleAndUser(scheduleId, userId);
+  }
+
   public List<CloudiatorProcess> getByUser(String userId) {
     return processModelRepository.findByUser(userId).stream().map(PROCESS_MODEL_CONVERTER).collect(
         Collectors.toList());
@@ -81,12 +95,90 @@ public class ProcessDomainRepository {
         Collectors.toList());
   }
 
+  public List<CloudiatorProcess> getByState(ProcessState state) {
+    return processModelRepository.findByState(state).stream().map(PROCESS_MODEL_CONVERTER)
+        .collect(Collectors.toList());
+  }
+
   public CloudiatorProcess save(CloudiatorProcess domain) {
     checkNotNull(domain, "domain is null");
     return PROCESS_MODEL_CONVERTER.apply(saveAndGet(domain));
   }
 
 
+  /**
+   * Saves all processes. Existing processes and the schedules of new processes are loaded with one
+   * query per user instead of one query per process, the writes are left to the jdbc batching of
+   * the flush.
+   *
+   * @param domains the processes to save
+   * @return the saved processes
+   */
+  public List<CloudiatorProcess> saveAll(Collection<? extends CloudiatorProcess> domains) {
+    checkNotNull(domains, "domains is null");
+
+    final Map<String, List<CloudiatorProcess>> byUser = domains.stream()
+        .collect(Collectors.groupingBy(CloudiatorProcess::userId));
+
+    final List<CloudiatorProcess> saved = new ArrayList<>(domains.size());
+    for (Map.Entry<String, List<CloudiatorProcess>> entry : byUser.entrySet()) {
+      final String userId = entry.getKey();
+      final List<CloudiatorProcess> processes = entry.getValue();
+
+      final Map<String, ProcessModel> existing = processModelRepository
+          .findByIdsAndUser(
+              processes.stream().map(CloudiatorProcess::id).collect(Collectors.toSet()), userId)
+          .stream().collect(Collectors.toMap(ProcessModel::getDomainId, Function.identity()));
+
+      final Set<String> scheduleIds = processes.stream()
+          .filter(process -> !existing.containsKey(process.id()))
+          .map(CloudiatorProcess::scheduleId).collect(Collectors.toSet());
+      final Map<String, ScheduleModel> schedules = scheduleIds.isEmpty() ? Collections.emptyMap()
+          : scheduleModelRepository.findByIdsAndUser(scheduleIds, userId).stream()
+              .collect(Collectors.toMap(ScheduleModel::domainId, Function.identity()));
+
+      for (CloudiatorProcess domain : processes) {
+        ProcessModel processModel = existing.get(domain.id());
+        if (processModel == null) {
+          final ScheduleModel scheduleModel = schedules.get(domain.scheduleId());
+          if (scheduleModel == null) {
+            throw new IllegalStateException(
+                String.format("Schedule with id %s does not exist for user %s.",
+                    domain.scheduleId(), userId));
+          }
+          processModel = createProcessModel(domain, scheduleModel);
+        } else {
+          processModel = updateProcessModel(domain, processModel);
+        }
+        processModelRepository.save(processModel);
+        saved.add(PROCESS_MODEL_CONVERTER.apply(processModel));
+      }
+    }
+
+    return saved;
+  }
+
+  /**
+   * Updates only the state of the given processes, using one bulk update per state. Already
+   * loaded processes do not reflect the update.
+   *
+   * @param states the new state of each process, indexed by the process id
+   * @param userId the owner of the processes
+   * @return the number of updated processes
+   */
+  public int updateStates(Map<String, ProcessState> states, String userId) {
+    checkNotNull(states, "states is null");
+    checkNotNull(userId, "userId is null");
+
+    int updated = 0;
+    for (Map.Entry<ProcessState, List<String>> entry : states.entrySet().stream().collect(
+        Collectors.groupingBy(Map.Entry::getValue,
+            Collectors.mapping(Map.Entry::getKey, Collectors.toList()))).entrySet()) {
+      updated += processModelRepository.updateStates(entry.getValue(), userId, entry.getKey());
+    }
+    return updated;
+  }
+
   ProcessModel saveAndGet(CloudiatorProcess domain) {
 
     //check if exists
@@ -94,7 +186,8 @@ public class ProcessDomainRepository {
         .findByIdAndUser(domain.id(), domain.userId());
 
     if (processModel == null) {
-      processModel = createProcessModel(domain);
+      processModel = createProcessModel(domain,
+          getScheduleModel(domain.scheduleId(), domain.userId()));
     } else {
       processModel = updateProcessModel(domain, processModel);
     }
@@ -122,7 +215,11 @@ public class ProcessDomainRepository {
     processModel.setOriginId(domain.originId().orElse(null));
     processModel.setDiagnostic(domain.diagnostic().orElse(null));
     processModel.setType(domain.type());
-    processModel.setIpGroupModel(generateIpModel(domain));
+    //only replace the ip group if the addresses changed
+    if (!processModel.getIpAddresses().stream().map(IP_ADDRESS_CONVERTER)
+        .collect(Collectors.toSet()).equals(new HashSet<>(domain.ipAddresses()))) {
+      processModel.setIpGroupModel(generateIpModel(domain));
+    }
     processModel.setEndpoint(domain.endpoint().orElse(null));
     processModel.setStart(processModel.getStart());
     processModel.setStop(processModel.getStop());
@@ -146,12 +243,7 @@ public class ProcessDomainRepository {
   }
 
 
-  private ProcessModel createProcessModel(CloudiatorProcess domain) {
-
-    //TODO: fetch this by the message!?
-
-    //get the schedule model
-    final ScheduleModel scheduleModel = getScheduleModel(domain.scheduleId(), domain.userId());
+  private ProcessModel createProcessModel(CloudiatorProcess domain, ScheduleModel scheduleModel) {
 
     if (domain instanceof CloudiatorSingleProcess) {
 
@@ -16,7 +16,10 @@
 
 package io.github.cloudiator.persistance;
 
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 interface ProcessModelRepository extends ModelRepository<ProcessModel> {
 
@@ -26,4 +29,22 @@ interface ProcessModelRepository extends ModelRepository<ProcessModel> {
 
   ProcessModel findByIdAndUser(String id, String user);
 
+  List<ProcessModel> findByState(ProcessState state);
+
+  /**
+   * Projection on the ids and states of the processes of a schedule, no process is loaded.
+   *
+   * @return the state of each process, indexed by the process id
+   */
+  Map<String, ProcessState> findStatesByScheduleAndUser(String scheduleId, String user);
+
+  List<ProcessModel> findByIdsAndUser(Collection<String> ids, String user);
+
+  /**
+   * Bulk update of the state column, bypassing the persistence context.
+   *
+   * @return the number of updated processes
+   */
+  int updateStates(Collection<String> ids, String user, ProcessState state);
+
 }
@@ -16,16 +16,25 @@
 
 package io.github.cloudiator.persistance;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.util.JpaResultHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.persistence.EntityManager;
 
 class ProcessModelRepositoryJpa extends BaseModelRepositoryJpa<ProcessModel> implements
     ProcessModelRepository {
 
+  private static final int MAX_IDS_PER_QUERY = 1000;
+
   @Inject
   protected ProcessModelRepositoryJpa(
       Provider<EntityManager> entityManager,
@@ -65,4 +74,66 @@ class ProcessModelRepositoryJpa extends BaseModelRepositoryJpa<ProcessModel> imp
         .getSingleResultOrNull(
             em().createQuery(query).setParameter("id", id).setParameter("userId", userId));
   }
+
+  @Override
+  public List<ProcessModel> findByState(ProcessState state) {
+    String query = String.format(
+        "select process from %s as process where process.state = :state",
+        type.getName());
+
+    //noinspection unchecked
+    return em().createQuery(query).setParameter("state", state).getResultList();
+  }
+
+  @Override
+  public Map<String, ProcessState> findStatesByScheduleAndUser(String scheduleId, String userId) {
+    String query = String.format(
+        "select process.domainId, process.state from %s as process inner join process.schedule as schedule inner join schedule.tenant as tenant where schedule.domainId = :scheduleId and tenant.userId = :userId",
+        type.getName());
+
+    //noinspection unchecked
+    final List<Object[]> rows = em().createQuery(query).setParameter("scheduleId", scheduleId)
+        .setParameter("userId", userId).getResultList();
+
+    final Map<String, ProcessState> states = new HashMap<>(rows.size());
+    for (Object[] row : rows) {
+      states.put((String) row[0], (ProcessState) row[1]);
+    }
+    return states;
+  }
+
+  @Override
+  public List<ProcessModel> findByIdsAndUser(Collection<String> ids, String userId) {
+    String query = String.format(
+        "select process from %s as process inner join fetch process.schedule as schedule inner join fetch schedule.tenant as tenant where process.domainId in :ids and tenant.userId = :userId",
+        type.getName());
+
+    final List<ProcessModel> processModels = new ArrayList<>(ids.size());
+    for (List<String> partition : Iterables.partition(ids, MAX_IDS_PER_QUERY)) {
+      //noinspection unchecked
+      processModels.addAll(em().createQuery(query).setParameter("ids", partition)
+          .setParameter("userId", userId).getResultList());
+    }
+    return processModels;
+  }
+
+  @Override
+  public int updateStates(Collection<String> ids, String userId, ProcessState state) {
+
+    int updated = 0;
+    //bulk updates on the abstract model would require temporary tables, so each concrete
+    //table is updated on its own
+    for (Class<? extends ProcessModel> processClass : Arrays
+        .asList(ProcessSingleModel.class, ProcessClusterModel.class)) {
+      String query = String.format(
+          "update %s as process set process.state = :state where process.domainId in :ids and process.schedule in (select schedule from %s as schedule where schedule.tenant.userId = :userId)",
+          processClass.getName(), ScheduleModel.class.getName());
+
+      for (List<String> partition : Iterables.partition(ids, MAX_IDS_PER_QUERY)) {
+        updated += em().createQuery(query).setParameter("state", state)
+            .setParameter("ids", partition).setParameter("userId", userId).executeUpdate();
+      }
+    }
+    return updated;
+  }
 }
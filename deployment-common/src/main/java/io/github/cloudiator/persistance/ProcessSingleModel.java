@@ -23,12 +23,14 @@ import java.util.Date;
 import javax.annotation.Nullable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import org.hibernate.annotations.DynamicUpdate;
 
 
 /**
  * Created by daniel on 12.12.14.
  */
 @Entity
+@DynamicUpdate
 class ProcessSingleModel extends ProcessModel {
 
   @Column(nullable = false)
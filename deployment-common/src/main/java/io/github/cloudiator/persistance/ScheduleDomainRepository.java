@@ -23,7 +23,13 @@ import static com.google.common.base.Preconditions.checkState;
 import com.google.inject.Inject;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.Schedule;
+import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -45,14 +51,25 @@ public class ScheduleDomainRepository {
     checkNotNull(userId, "userId is null");
     checkArgument(!userId.isEmpty(), "userId is empty");
 
-    return scheduleModelRepository.findByUser(userId).stream().map(SCHEDULE_MODEL_CONVERTER)
-        .collect(Collectors.toSet());
+    return scheduleModelRepository.findByUserWithProcesses(userId).stream()
+        .map(SCHEDULE_MODEL_CONVERTER).collect(Collectors.toSet());
+  }
+
+  /**
+   * Returns all schedules of the user without their processes.
+   */
+  public Set<Schedule> findSummariesByUser(String userId) {
+    checkNotNull(userId, "userId is null");
+    checkArgument(!userId.isEmpty(), "userId is empty");
+
+    return scheduleModelRepository.findByUser(userId).stream()
+        .map(SCHEDULE_MODEL_CONVERTER::applyWithoutProcesses).collect(Collectors.toSet());
   }
 
   @Nullable
   public Schedule findByIdAndUser(String scheduleId, String userId) {
     return SCHEDULE_MODEL_CONVERTER
-        .apply(scheduleModelRepository.findByIdAndUser(scheduleId, userId));
+        .apply(scheduleModelRepository.findByIdAndUserWithProcesses(scheduleId, userId));
   }
 
   @Nullable
@@ -77,6 +94,61 @@ public class ScheduleDomainRepository {
     scheduleModelRepository.delete(scheduleModel);
   }
 
+  /**
+   * Saves all schedules, loading the existing ones with one query per user.
+   *
+   * @param domains the schedules to save
+   * @return the saved schedules
+   */
+  public List<Schedule> saveAll(Collection<? extends Schedule> domains) {
+    checkNotNull(domains, "domains is null");
+
+    final Map<String, List<Schedule>> byUser = domains.stream()
+        .collect(Collectors.groupingBy(Schedule::userId));
+
+    final List<Schedule> saved = new ArrayList<>(domains.size());
+    for (Map.Entry<String, List<Schedule>> entry : byUser.entrySet()) {
+      final Map<String, ScheduleModel> existing = scheduleModelRepository.findByIdsAndUser(
+          entry.getValue().stream().map(Schedule::id).collect(Collectors.toSet()),
+          entry.getKey()).stream()
+          .collect(Collectors.toMap(ScheduleModel::domainId, Function.identity()));
+
+      for (Schedule domain : entry.getValue()) {
+        ScheduleModel scheduleModel = existing.get(domain.id());
+        if (scheduleModel == null) {
+          scheduleModel = createScheduleModel(domain);
+        } else {
+          scheduleModel = updateScheduleModel(domain, scheduleModel);
+        }
+        scheduleModelRepository.save(scheduleModel);
+        saved.add(SCHEDULE_MODEL_CONVERTER.apply(scheduleModel));
+      }
+    }
+
+    return saved;
+  }
+
+  /**
+   * Updates only the state of the given schedules, using one bulk update per state. Already
+   * loaded schedules do not reflect the update.
+   *
+   * @param states the new state of each schedule, indexed by the schedule id
+   * @param userId the owner of the schedules
+   * @return the number of updated schedules
+   */
+  public int updateStates(Map<String, ScheduleState> states, String userId) {
+    checkNotNull(states, "states is null");
+    checkNotNull(userId, "userId is null");
+
+    int updated = 0;
+    for (Map.Entry<ScheduleState, List<String>> entry : states.entrySet().stream().collect(
+        Collectors.groupingBy(Map.Entry::getValue,
+            Collectors.mapping(Map.Entry::getKey, Collectors.toList()))).entrySet()) {
+      updated += scheduleModelRepository.updateStates(entry.getValue(), userId, entry.getKey());
+    }
+    return updated;
+  }
+
   ScheduleModel saveAndGet(Schedule domain) {
 
     //check if exists
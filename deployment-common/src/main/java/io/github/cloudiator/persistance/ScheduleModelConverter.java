@@ -38,13 +38,20 @@ class ScheduleModelConverter implements OneWayConverter<ScheduleModel, Schedule>
       return null;
     }
 
-    final Schedule schedule = ScheduleImpl
-        .of(scheduleModel.domainId(), scheduleModel.tenant().getUserId(), scheduleModel.jobId(),
-            scheduleModel.instantiation(), scheduleModel.state());
+    final Schedule schedule = applyWithoutProcesses(scheduleModel);
     for (ProcessModel processModel : scheduleModel.processes()) {
       schedule.addProcess(PROCESS_MODEL_CONVERTER.apply(processModel));
     }
 
     return schedule;
   }
+
+  /**
+   * Converts the schedule without touching its processes.
+   */
+  Schedule applyWithoutProcesses(ScheduleModel scheduleModel) {
+    return ScheduleImpl
+        .of(scheduleModel.domainId(), scheduleModel.tenant().getUserId(), scheduleModel.jobId(),
+            scheduleModel.instantiation(), scheduleModel.state());
+  }
 }
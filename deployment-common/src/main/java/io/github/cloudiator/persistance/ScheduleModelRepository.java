@@ -16,6 +16,8 @@
 
 package io.github.cloudiator.persistance;
 
+import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
+import java.util.Collection;
 import java.util.List;
 
 public interface ScheduleModelRepository extends ModelRepository<ScheduleModel> {
@@ -26,4 +28,25 @@ public interface ScheduleModelRepository extends ModelRepository<ScheduleModel>
   ScheduleModel findByIdAndUser(String id, String user);
 
   ScheduleModel findByProcessAndUser(String processId, String userId);
+
+  /**
+   * Same as {@link #findByUser(String)}, but the processes of the schedules are loaded with a
+   * constant number of queries.
+   */
+  List<ScheduleModel> findByUserWithProcesses(String userId);
+
+  /**
+   * Same as {@link #findByIdAndUser(String, String)}, but the processes of the schedule are loaded
+   * with a constant number of queries.
+   */
+  ScheduleModel findByIdAndUserWithProcesses(String id, String user);
+
+  List<ScheduleModel> findByIdsAndUser(Collection<String> ids, String user);
+
+  /**
+   * Bulk update of the state column, bypassing the persistence context.
+   *
+   * @return the number of updated schedules
+   */
+  int updateStates(Collection<String> ids, String user, ScheduleState state);
 }
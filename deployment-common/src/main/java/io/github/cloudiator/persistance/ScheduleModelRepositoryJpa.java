@@ -16,16 +16,23 @@
 
 package io.github.cloudiator.persistance;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
 import io.github.cloudiator.util.JpaResultHelper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import javax.persistence.EntityManager;
 
 public class ScheduleModelRepositoryJpa extends
     BaseModelRepositoryJpa<ScheduleModel> implements ScheduleModelRepository {
 
+  private static final int MAX_IDS_PER_QUERY = 1000;
+
   @Inject
   protected ScheduleModelRepositoryJpa(
       Provider<EntityManager> entityManager,
@@ -68,4 +75,77 @@ public class ScheduleModelRepositoryJpa extends
             em().createQuery(query).setParameter("processId", processId)
                 .setParameter("userId", userId));
   }
+
+  @Override
+  public List<ScheduleModel> findByUserWithProcesses(String userId) {
+    String query = String.format(
+        "select distinct schedule from %s as schedule inner join fetch schedule.tenant as tenant left join fetch schedule.proccesses as process left join fetch process.ipGroupModel where tenant.userId = :userId",
+        type.getName());
+
+    //noinspection unchecked
+    return fetchClusterNodes(
+        em().createQuery(query).setParameter("userId", userId).getResultList());
+  }
+
+  @Override
+  public ScheduleModel findByIdAndUserWithProcesses(String id, String user) {
+    String query = String.format(
+        "select distinct schedule from %s as schedule inner join fetch schedule.tenant as tenant left join fetch schedule.proccesses as process left join fetch process.ipGroupModel where tenant.userId = :userId and schedule.domainId = :id",
+        type.getName());
+
+    final ScheduleModel scheduleModel = (ScheduleModel) JpaResultHelper
+        .getSingleResultOrNull(
+            em().createQuery(query).setParameter("id", id).setParameter("userId", user));
+
+    if (scheduleModel != null) {
+      fetchClusterNodes(Collections.singletonList(scheduleModel));
+    }
+    return scheduleModel;
+  }
+
+  @Override
+  public List<ScheduleModel> findByIdsAndUser(Collection<String> ids, String user) {
+    String query = String.format(
+        "select schedule from %s as schedule inner join fetch schedule.tenant as tenant where tenant.userId = :userId and schedule.domainId in :ids",
+        type.getName());
+
+    final List<ScheduleModel> scheduleModels = new ArrayList<>(ids.size());
+    for (List<String> partition : Iterables.partition(ids, MAX_IDS_PER_QUERY)) {
+      //noinspection unchecked
+      scheduleModels.addAll(em().createQuery(query).setParameter("ids", partition)
+          .setParameter("userId", user).getResultList());
+    }
+    return scheduleModels;
+  }
+
+  @Override
+  public int updateStates(Collection<String> ids, String user, ScheduleState state) {
+    String query = String.format(
+        "update %s as schedule set schedule.scheduleState = :state where schedule.domainId in :ids and schedule.tenant in (select tenant from %s as tenant where tenant.userId = :userId)",
+        type.getName(), TenantModel.class.getName());
+
+    int updated = 0;
+    for (List<String> partition : Iterables.partition(ids, MAX_IDS_PER_QUERY)) {
+      updated += em().createQuery(query).setParameter("state", state)
+          .setParameter("ids", partition).setParameter("userId", user).executeUpdate();
+    }
+    return updated;
+  }
+
+  /**
+   * Initializes the node collections of all cluster processes of the schedules with a single
+   * query, instead of one query per cluster process.
+   */
+  private List<ScheduleModel> fetchClusterNodes(List<ScheduleModel> schedules) {
+    if (schedules.isEmpty()) {
+      return schedules;
+    }
+
+    String query = String.format(
+        "select distinct cluster from %s as cluster left join fetch cluster.nodes where cluster.schedule in :schedules",
+        ProcessClusterModel.class.getName());
+
+    em().createQuery(query).setParameter("schedules", schedules).getResultList();
+    return schedules;
+  }
 }
@@ -19,6 +19,7 @@ package io.github.cloudiator.deployment.domain;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.util.Iterator;
 import java.util.Set;
@@ -69,6 +70,35 @@ public class JobImplTest {
 
   }
 
+  @Test
+  public void portTest() {
+    Job job = MediaWikiJob.wikiJob();
+
+    assertThat(job.providedPort(MediaWikiJob.wikiWithDB()),
+        equalTo(MediaWikiJob.databaseProvided()));
+    assertThat(job.requiredPort(MediaWikiJob.wikiWithDB()),
+        equalTo(MediaWikiJob.wikiRequiresDatabase()));
+    assertThat(job.getProvidingPort(MediaWikiJob.wikiRequiresDatabase()),
+        equalTo(MediaWikiJob.databaseProvided()));
+  }
+
+  @Test
+  public void getTaskTest() {
+    Job job = MediaWikiJob.wikiJob();
+
+    assertThat(job.getTask(MediaWikiJob.wikiTask().name()).get(),
+        equalTo(MediaWikiJob.wikiTask()));
+    assertThat(job.getTask("unknown").isPresent(), equalTo(false));
+  }
+
+  @Test
+  public void attachedCommunicationsAreNotCopiedTest() {
+    Job job = MediaWikiJob.wikiJob();
+
+    assertThat(job.attachedCommunications(MediaWikiJob.databaseProvided()),
+        sameInstance(job.attachedCommunications(MediaWikiJob.databaseProvided())));
+  }
+
   @Test
   public void consumedByTest() {
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.domain;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+import com.google.common.collect.Iterables;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.Type;
+import java.util.Date;
+import java.util.Set;
+import org.junit.Test;
+
+public class ScheduleImplTest {
+
+  @Test
+  public void processesForTask() {
+    final Schedule schedule = MediaWikiSchedule.schedule();
+
+    assertThat(schedule.processesForTask(MediaWikiJob.wikiTask()),
+        contains(MediaWikiSchedule.wikiProcess()));
+    assertThat(schedule.processesForTask(MediaWikiJob.loadBalancerTask()),
+        contains(MediaWikiSchedule.lbProcess()));
+    assertThat(schedule.processesForTask(MediaWikiJob.databaseTask()),
+        contains(MediaWikiSchedule.dbProcess()));
+  }
+
+  @Test
+  public void processesForUnknownTask() {
+    final Schedule schedule = ScheduleImpl.of("scheduleId", MediaWikiJob.wikiJob().userId(),
+        MediaWikiJob.wikiJob().id(), Schedule.Instantiation.AUTOMATIC,
+        Schedule.ScheduleState.RUNNING);
+
+    assertThat(schedule.processesForTask(MediaWikiJob.wikiTask()), empty());
+    assertThat(schedule.nodes(), empty());
+  }
+
+  @Test
+  public void nodes() {
+    final Schedule schedule = MediaWikiSchedule.schedule();
+
+    assertThat(schedule.nodes(), containsInAnyOrder(
+        Iterables.getOnlyElement(MediaWikiSchedule.wikiProcess().nodes()),
+        Iterables.getOnlyElement(MediaWikiSchedule.lbProcess().nodes()),
+        Iterables.getOnlyElement(MediaWikiSchedule.dbProcess().nodes())));
+  }
+
+  @Test
+  public void processesAreNotCopied() {
+    final Schedule schedule = MediaWikiSchedule.schedule();
+
+    final Set<CloudiatorProcess> processes = schedule.processes();
+    assertThat(schedule.processes(), sameInstance(processes));
+    assertThat(schedule.processesForTask(MediaWikiJob.wikiTask()),
+        sameInstance(schedule.processesForTask(MediaWikiJob.wikiTask())));
+  }
+
+  @Test
+  public void addProcessUpdatesIndex() {
+    final Schedule schedule = MediaWikiSchedule.schedule();
+    assertThat(schedule.processes().size(), equalTo(3));
+
+    final CloudiatorProcess secondWiki = CloudiatorSingleProcessBuilder.create()
+        .node("secondWikiNode").userId(MediaWikiJob.wikiJob().userId())
+        .scheduleId(schedule.id()).taskName(MediaWikiJob.wikiTask().name())
+        .originId("secondWiki").taskInterface(LanceInterface.class.getCanonicalName())
+        .type(Type.LANCE).id("secondWiki").state(ProcessState.RUNNING).start(new Date())
+        .build();
+
+    assertThat(schedule.addProcess(secondWiki), sameInstance(schedule));
+
+    assertThat(schedule.processes().size(), equalTo(4));
+    assertThat(schedule.processesForTask(MediaWikiJob.wikiTask()),
+        containsInAnyOrder(MediaWikiSchedule.wikiProcess(), secondWiki));
+    assertThat(schedule.nodes().contains("secondWikiNode"), equalTo(true));
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.graph;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.domain.Communication;
+import io.github.cloudiator.deployment.domain.Job;
+import io.github.cloudiator.deployment.domain.MediaWikiJob;
+import io.github.cloudiator.deployment.domain.MediaWikiSchedule;
+import io.github.cloudiator.deployment.domain.Schedule;
+import io.github.cloudiator.deployment.graph.ScheduleGraph.CommunicationInstanceEdge;
+import java.util.Map.Entry;
+import org.junit.Test;
+
+public class ProcessDependenciesTest {
+
+  private final Job job = MediaWikiJob.wikiJob();
+  private final Schedule schedule = MediaWikiSchedule.schedule();
+  private final ProcessDependencies processDependencies = ProcessDependencies.of(schedule, job);
+
+  @Test
+  public void dependencies() {
+
+    assertThat(processDependencies.dependencies(MediaWikiSchedule.wikiProcess()).values(),
+        contains(MediaWikiSchedule.dbProcess()));
+    assertThat(processDependencies.dependencies(MediaWikiSchedule.lbProcess()).values(),
+        contains(MediaWikiSchedule.wikiProcess()));
+    assertThat(processDependencies.dependencies(MediaWikiSchedule.dbProcess()).values(),
+        empty());
+  }
+
+  @Test
+  public void dependents() {
+
+    assertThat(processDependencies.dependents(MediaWikiSchedule.dbProcess()),
+        contains(MediaWikiSchedule.wikiProcess()));
+    assertThat(processDependencies.dependents(MediaWikiSchedule.wikiProcess()),
+        contains(MediaWikiSchedule.lbProcess()));
+    assertThat(processDependencies.dependents(MediaWikiSchedule.lbProcess()), empty());
+  }
+
+  @Test
+  public void matchesScheduleGraph() {
+
+    final ScheduleGraph scheduleGraph = Graphs.scheduleGraph(schedule, job);
+
+    for (CloudiatorProcess cloudiatorProcess : schedule.processes()) {
+      assertThat(processDependencies.dependents(cloudiatorProcess),
+          containsInAnyOrder(scheduleGraph.getDependentProcesses(cloudiatorProcess).toArray()));
+
+      for (Entry<Communication, CloudiatorProcess> dependency : processDependencies
+          .dependencies(cloudiatorProcess).entries()) {
+        final CommunicationInstanceEdge edge = scheduleGraph
+            .getEdge(dependency.getValue(), cloudiatorProcess);
+        assertThat(edge.getCommunication(), equalTo(dependency.getKey()));
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.messaging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.cloudiator.domain.Node;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.cloudiator.messages.General.Error;
+import org.cloudiator.messages.Installation.InstallationRequest;
+import org.cloudiator.messages.Installation.InstallationResponse;
+import org.cloudiator.messages.InstallationEntities.Tool;
+import org.cloudiator.messages.NodeEntities;
+import org.cloudiator.messaging.SettableFutureResponseCallback;
+import org.cloudiator.messaging.services.InstallationRequestService;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeInstallationCacheTest {
+
+  private static final String USER_ID = "user";
+
+  private final List<InstallationRequest> requests = new ArrayList<>();
+  private final List<SettableFutureResponseCallback<InstallationResponse, InstallationResponse>> callbacks =
+      new ArrayList<>();
+  private NodeInstallationCache nodeInstallationCache;
+
+  /**
+   * Stub recording all asynchronous installation requests, they are completed by {@link
+   * #complete(int)}.
+   */
+  @SuppressWarnings("unchecked")
+  private InstallationRequestService installationRequestService() {
+    return (InstallationRequestService) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class[]{InstallationRequestService.class}, (proxy, method, args) -> {
+          if (method.getName().equals("createInstallationRequestAsync")) {
+            requests.add((InstallationRequest) args[0]);
+            callbacks.add((SettableFutureResponseCallback<InstallationResponse,
+                InstallationResponse>) args[1]);
+            return null;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  private static Node node(String id) {
+    return (Node) Proxy.newProxyInstance(NodeInstallationCacheTest.class.getClassLoader(),
+        new Class[]{Node.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "id":
+              return id;
+            case "hashCode":
+              return id.hashCode();
+            case "equals":
+              return proxy == args[0];
+            case "toString":
+              return id;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  private void complete(int request) {
+    callbacks.get(request).accept(InstallationResponse.getDefaultInstance(), null);
+  }
+
+  private void failRequest(int request) {
+    callbacks.get(request)
+        .accept(null, Error.newBuilder().setCode(500).setMessage("installation failed").build());
+  }
+
+  @Before
+  public void setUp() {
+    nodeInstallationCache = new NodeInstallationCache(installationRequestService(),
+        node -> NodeEntities.Node.getDefaultInstance());
+  }
+
+  @Test
+  public void repeatedInstallIsShortCircuited() {
+    final Node node = node("node");
+    final Set<Tool> tools = EnumSet.of(Tool.DOCKER, Tool.LANCE);
+
+    final ListenableFuture<?> first = nodeInstallationCache.install(USER_ID, node, tools);
+    complete(0);
+    assertThat(first.isDone(), equalTo(true));
+
+    final ListenableFuture<?> second = nodeInstallationCache.install(USER_ID, node, tools);
+    assertThat(second.isDone(), equalTo(true));
+    assertThat(requests.size(), equalTo(1));
+  }
+
+  @Test
+  public void concurrentInstallsAreDeduplicated() {
+    final Node node = node("node");
+
+    final ListenableFuture<?> first = nodeInstallationCache
+        .install(USER_ID, node, EnumSet.of(Tool.DOCKER, Tool.LANCE));
+    final ListenableFuture<?> second = nodeInstallationCache
+        .install(USER_ID, node, EnumSet.of(Tool.DOCKER));
+
+    assertThat(second, sameInstance(first));
+    assertThat(requests.size(), equalTo(1));
+  }
+
+  @Test
+  public void onlyMissingToolsAreRequested() {
+    final Node node = node("node");
+
+    nodeInstallationCache.install(USER_ID, node, EnumSet.of(Tool.DOCKER));
+    complete(0);
+    nodeInstallationCache.install(USER_ID, node, EnumSet.of(Tool.DOCKER, Tool.LANCE));
+
+    assertThat(requests.size(), equalTo(2));
+    assertThat(requests.get(1).getInstallation().getToolList(), contains(Tool.LANCE));
+  }
+
+  @Test
+  public void joinedChainedInstallFailsIfPreviousFailed() throws InterruptedException {
+    final Node node = node("node");
+
+    nodeInstallationCache.install(USER_ID, node, EnumSet.of(Tool.DOCKER));
+    final ListenableFuture<?> chained = nodeInstallationCache
+        .install(USER_ID, node, EnumSet.of(Tool.LANCE));
+    //joins the chained installation, which also covers the previous one
+    final ListenableFuture<?> joined = nodeInstallationCache
+        .install(USER_ID, node, EnumSet.of(Tool.DOCKER));
+
+    failRequest(0);
+    complete(1);
+
+    assertThat(chained.isDone(), equalTo(true));
+    assertThat(joined.isDone(), equalTo(true));
+    try {
+      joined.get();
+      fail("Expected the joined installation to fail as docker was not installed.");
+    } catch (ExecutionException expected) {
+      //expected
+    }
+  }
+
+  @Test
+  public void invalidateDropsRunningInstallation() {
+    final Node node = node("node");
+    final Set<Tool> tools = EnumSet.of(Tool.DOCKER);
+
+    nodeInstallationCache.install(USER_ID, node, tools);
+    nodeInstallationCache.invalidate(node.id());
+    complete(0);
+
+    nodeInstallationCache.install(USER_ID, node, tools);
+    assertThat(requests.size(), equalTo(2));
+  }
+
+}
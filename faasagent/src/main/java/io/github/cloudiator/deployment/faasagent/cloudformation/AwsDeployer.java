@@ -11,12 +11,18 @@ import com.amazonaws.services.cloudformation.model.*;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import de.uniulm.omi.cloudiator.sword.domain.Cloud;
 import de.uniulm.omi.cloudiator.sword.domain.CloudCredential;
+import io.github.cloudiator.deployment.faasagent.cloudformation.CodeArtifactCache.Artifact;
 import io.github.cloudiator.deployment.faasagent.cloudformation.models.ApplicationTemplate;
 import io.github.cloudiator.deployment.faasagent.cloudformation.models.LambdaTemplate;
 import io.github.cloudiator.deployment.faasagent.cloudformation.utils.TemplateUtils;
@@ -24,19 +30,44 @@ import io.github.cloudiator.deployment.faasagent.deployment.FaasDeployer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.net.URL;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class AwsDeployer implements FaasDeployer {
 
+  /**
+   * Creates a deployer per request. All deployers share the bounded pools used to fetch and
+   * upload function code, so concurrent deployments do not each start their own threads.
+   */
+  @Singleton
   public static class AwsDeployerFactory implements FaasDeployerFactory {
 
+    private final CodeArtifactCache codeArtifactCache;
+    private final ExecutorService uploadExecutor;
+    private final ExecutorService transferExecutor;
+
+    @Inject
+    public AwsDeployerFactory(CodeArtifactCache codeArtifactCache) {
+      this.codeArtifactCache = codeArtifactCache;
+      this.uploadExecutor = Executors.newFixedThreadPool(UPLOAD_PARALLELISM,
+          new ThreadFactoryBuilder().setNameFormat("aws-upload-%d").setDaemon(true).build());
+      MoreExecutors.addDelayedShutdownHook(uploadExecutor, 1, TimeUnit.MINUTES);
+      // Separate from the uploads, which block until their parts are transferred
+      this.transferExecutor = Executors.newFixedThreadPool(TRANSFER_PARALLELISM,
+          new ThreadFactoryBuilder().setNameFormat("aws-transfer-%d").setDaemon(true).build());
+      MoreExecutors.addDelayedShutdownHook(transferExecutor, 1, TimeUnit.MINUTES);
+    }
+
     @Override
     public boolean supports(Cloud cloud) {
       return "aws-ec2".equals(cloud.api().providerName());
@@ -45,21 +76,32 @@ public class AwsDeployer implements FaasDeployer {
     @Override
     public FaasDeployer create(String region, Cloud cloud) {
       CloudCredential credential = cloud.credential();
-      return new AwsDeployer(region, credential.user(), credential.password());
+      return new AwsDeployer(region, credential.user(), credential.password(),
+          codeArtifactCache, uploadExecutor, transferExecutor);
     }
   }
 
-  private static final long WAIT_INTERVAL = 2000;
+  private static final long MIN_WAIT_INTERVAL = 1000;
+  private static final long MAX_WAIT_INTERVAL = 15000;
+  private static final int UPLOAD_PARALLELISM = 8;
+  private static final int TRANSFER_PARALLELISM = 10;
   private static final Logger LOGGER = LoggerFactory.getLogger(AwsDeployer.class);
 
   private final String region;
   private final AmazonCloudFormation cfApi;
   private final AmazonS3 amazonS3;
+  private final CodeArtifactCache codeArtifactCache;
+  private final ExecutorService uploadExecutor;
+  private final TransferManager transferManager;
   private String physicalApiId;
   private String physicalBucketId;
 
-  private AwsDeployer(String region, String keyId, String accessKey) {
+  private AwsDeployer(String region, String keyId, String accessKey,
+      CodeArtifactCache codeArtifactCache, ExecutorService uploadExecutor,
+      ExecutorService transferExecutor) {
     this.region = region;
+    this.codeArtifactCache = codeArtifactCache;
+    this.uploadExecutor = uploadExecutor;
     AWSCredentialsProvider credentials = getCredentials(keyId, accessKey);
     this.cfApi = AmazonCloudFormationClientBuilder.standard()
         .withCredentials(credentials)
@@ -69,6 +111,11 @@ public class AwsDeployer implements FaasDeployer {
         .withCredentials(credentials)
         .withRegion(region)
         .build();
+    this.transferManager = TransferManagerBuilder.standard()
+        .withS3Client(amazonS3)
+        .withExecutorFactory(() -> transferExecutor)
+        .withShutDownThreadPools(false)
+        .build();
   }
 
   @Override
@@ -77,9 +124,7 @@ public class AwsDeployer implements FaasDeployer {
     String stackName = app.name;
 
     // Create new Stack if doesn't exists
-    boolean exists = cfApi.describeStacks(new DescribeStacksRequest()).getStacks()
-        .stream().anyMatch((stack) -> stack.getStackName().equals(stackName));
-    if (!exists) {
+    if (!stackExists(stackName)) {
       try {
         createStack(stackName, generator.getCreateTemplate());
       } catch (InterruptedException e) {
@@ -95,22 +140,17 @@ public class AwsDeployer implements FaasDeployer {
 
     // Transfer files from func source url to s3
     // remember s3 keys for each function
-    for (LambdaTemplate template : app.functions) {
-      try {
-        template.s3CodeKey = template.name + ".zip";
-        BufferedInputStream stream = new BufferedInputStream(new URL(template.codeUrl).openStream());
-        LOGGER.info("Pushing file from {} to S3 bucket {}", template.codeUrl, physicalBucketId);
-        amazonS3.putObject(physicalBucketId, template.s3CodeKey, stream, new ObjectMetadata());
-      } catch (IOException e) {
-        LOGGER.error("Moving file {} failed", template.codeUrl, e);
-        throw new RuntimeException("Failed to prepare code sources");
-      }
-    }
+    uploadCode(app.functions);
 
     String updateTemplate = generator.getUpdateTemplate();
     LOGGER.debug(updateTemplate);
     try {
-      updateStack(stackName, updateTemplate);
+      if (updateStack(stackName, updateTemplate)
+          .startsWith(StackStatus.UPDATE_COMPLETE.toString())) {
+        // Older code is no longer referenced, a rolled back stack may still use it
+        deleteUnreferencedCode(app.functions.stream().map(function -> function.s3CodeKey)
+            .collect(Collectors.toSet()));
+      }
     } catch (InterruptedException e) {
       LOGGER.error("Updating stack interrupted", e);
       throw new RuntimeException("Failed to update stack");
@@ -152,6 +192,64 @@ public class AwsDeployer implements FaasDeployer {
     }
   }
 
+  private boolean stackExists(String stackName) {
+    try {
+      return !cfApi.describeStacks(new DescribeStacksRequest().withStackName(stackName))
+          .getStacks().isEmpty();
+    } catch (AmazonCloudFormationException e) {
+      // Describing a single stack fails if it does not exist
+      if (e.getMessage() != null && e.getMessage().contains("does not exist")) {
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Fetches the code of all functions through the artifact cache and pushes it to the bucket
+   * under its content hash, so unchanged code neither is uploaded again nor changes the stack.
+   */
+  private void uploadCode(List<LambdaTemplate> functions) {
+    // Functions sharing a bundle are fetched and pushed only once
+    final Map<String, List<LambdaTemplate>> byUrl = functions.stream()
+        .collect(Collectors.groupingBy(template -> template.codeUrl));
+    final List<Future<?>> uploads = new ArrayList<>();
+    try {
+      for (Map.Entry<String, List<LambdaTemplate>> entry : byUrl.entrySet()) {
+        uploads.add(uploadExecutor.submit(() -> {
+          final Artifact artifact = codeArtifactCache.fetch(entry.getKey());
+          try {
+            final String s3CodeKey = artifact.hash() + ".zip";
+            entry.getValue().forEach(template -> template.s3CodeKey = s3CodeKey);
+            if (amazonS3.doesObjectExist(physicalBucketId, s3CodeKey)) {
+              LOGGER.info("Code from {} already exists in S3 bucket {} as {}", entry.getKey(),
+                  physicalBucketId, s3CodeKey);
+              return null;
+            }
+            LOGGER.info("Pushing file from {} to S3 bucket {}", entry.getKey(),
+                physicalBucketId);
+            transferManager.upload(physicalBucketId, s3CodeKey, artifact.file().toFile())
+                .waitForCompletion();
+            return null;
+          } finally {
+            codeArtifactCache.release(artifact);
+          }
+        }));
+      }
+      for (Future<?> upload : uploads) {
+        upload.get();
+      }
+    } catch (ExecutionException e) {
+      uploads.forEach(upload -> upload.cancel(true));
+      LOGGER.error("Moving code sources failed", e);
+      throw new RuntimeException("Failed to prepare code sources");
+    } catch (InterruptedException e) {
+      uploads.forEach(upload -> upload.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while preparing code sources", e);
+    }
+  }
+
   private String getResourceId(String stackName, String resourceLogicalId) {
     DescribeStackResourceRequest logicalNameResourceRequest =
         new DescribeStackResourceRequest()
@@ -180,7 +278,7 @@ public class AwsDeployer implements FaasDeployer {
     LOGGER.info("{} stack creation completed, with status {}", stackName, status);
   }
 
-  private void updateStack(String stackName, String template) throws InterruptedException {
+  private String updateStack(String stackName, String template) throws InterruptedException {
     UpdateStackRequest updateRequest = new UpdateStackRequest();
     updateRequest.setStackName(stackName);
     updateRequest.setTemplateBody(template);
@@ -191,6 +289,7 @@ public class AwsDeployer implements FaasDeployer {
 
     String status = waitForCompletion(stackName);
     LOGGER.info("{} stack update completed, with status {}", stackName, status);
+    return status;
   }
 
   private void clearS3Bucket(String bucketId) {
@@ -207,6 +306,24 @@ public class AwsDeployer implements FaasDeployer {
     }
   }
 
+  private void deleteUnreferencedCode(Set<String> referencedKeys) {
+    ObjectListing objectListing = amazonS3.listObjects(physicalBucketId);
+    while (true) {
+      for (S3ObjectSummary s3ObjectSummary : objectListing.getObjectSummaries()) {
+        final String key = s3ObjectSummary.getKey();
+        if (key.endsWith(".zip") && !referencedKeys.contains(key)) {
+          LOGGER.info("Deleting unreferenced code {} from bucket {}", key, physicalBucketId);
+          amazonS3.deleteObject(physicalBucketId, key);
+        }
+      }
+      if (objectListing.isTruncated()) {
+        objectListing = amazonS3.listNextBatchOfObjects(objectListing);
+      } else {
+        break;
+      }
+    }
+  }
+
   private void deleteStack(String stackId) throws InterruptedException {
     DeleteStackRequest deleteRequest = new DeleteStackRequest();
     deleteRequest.setStackName(stackId);
@@ -241,6 +358,7 @@ public class AwsDeployer implements FaasDeployer {
         StackStatus.DELETE_FAILED.toString()
     );
 
+    long waitInterval = MIN_WAIT_INTERVAL;
     while (!completed) {
       // It should return only one stack
       List<Stack> stacks = cfApi.describeStacks(describeStacksRequest).getStacks();
@@ -249,10 +367,13 @@ public class AwsDeployer implements FaasDeployer {
           completed = true;
           stackStatus = stack.getStackStatus();
           stackReason = stack.getStackStatusReason();
-        } else {
-          Thread.sleep(WAIT_INTERVAL);
         }
       }
+      if (!completed) {
+        // Back off, stack operations take between seconds and several minutes
+        Thread.sleep(waitInterval);
+        waitInterval = Math.min(waitInterval * 2, MAX_WAIT_INTERVAL);
+      }
     }
 
     return stackStatus + " (" + stackReason + ")";
@@ -0,0 +1,313 @@
+package io.github.cloudiator.deployment.faasagent.cloudformation;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local, size bounded cache of function code artifacts. Artifacts are stored under the SHA-256
+ * hash of their content and evicted in least recently used order.
+ * <p>
+ * A known url is revalidated with its ETag and Last-Modified headers on every fetch, so changed
+ * content behind the same url is always picked up. Within the configured url ttl a known url is
+ * served without contacting the source at all. Fetched artifacts are pinned until they are
+ * {@link #release(Artifact) released} and are not evicted while pinned.
+ * <p>
+ * Artifacts left in the directory by a previous run are loaded on startup, oldest first, so they
+ * count towards the size bound. Their urls are not known, so they are only reused for urls whose
+ * content has the same hash.
+ */
+@Singleton
+public class CodeArtifactCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CodeArtifactCache.class);
+
+  private final Path directory;
+  private final long maxSize;
+  private final long urlTtl;
+  private final LinkedHashMap<String, Artifact> artifacts = new LinkedHashMap<>(16, 0.75f,
+      true);
+  private final Map<String, UrlEntry> urls = new HashMap<>();
+  private final Map<String, Integer> pins = new HashMap<>();
+  private long size = 0;
+
+  @Inject
+  public CodeArtifactCache() {
+    this(Paths.get(Configuration.conf().getString("faas.artifactCache.directory")),
+        Configuration.conf().getBytes("faas.artifactCache.maxSize"),
+        Configuration.conf().getDuration("faas.artifactCache.urlTtl", TimeUnit.MILLISECONDS));
+  }
+
+  public CodeArtifactCache(Path directory, long maxSize) {
+    this(directory, maxSize, 0);
+  }
+
+  public CodeArtifactCache(Path directory, long maxSize, long urlTtl) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.urlTtl = urlTtl;
+    load();
+  }
+
+  private synchronized void load() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      final List<Path> existing = files.sorted(Comparator.comparing(CodeArtifactCache::modified))
+          .collect(Collectors.toList());
+      for (Path file : existing) {
+        final String name = file.getFileName().toString();
+        if (name.endsWith(".tmp")) {
+          //download interrupted by the previous run
+          Files.deleteIfExists(file);
+        } else if (name.endsWith(".zip")) {
+          final Artifact artifact = new Artifact(name.substring(0, name.length() - 4), file,
+              Files.size(file));
+          artifacts.put(artifact.hash, artifact);
+          size += artifact.size;
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Could not load the existing code artifacts from {}", directory, e);
+    }
+    evict(null);
+    LOGGER.info("Loaded {} existing code artifacts with {} bytes from {}", artifacts.size(), size,
+        directory);
+  }
+
+  private static FileTime modified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  public static class Artifact {
+
+    private final String hash;
+    private final Path file;
+    private final long size;
+
+    private Artifact(String hash, Path file, long size) {
+      this.hash = hash;
+      this.file = file;
+      this.size = size;
+    }
+
+    public String hash() {
+      return hash;
+    }
+
+    public Path file() {
+      return file;
+    }
+
+    public long size() {
+      return size;
+    }
+  }
+
+  private static class UrlEntry {
+
+    private final String hash;
+    private final long fetched;
+    private final String etag;
+    private final long lastModified;
+
+    private UrlEntry(String hash, long fetched, String etag, long lastModified) {
+      this.hash = hash;
+      this.fetched = fetched;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+
+    private boolean hasValidators() {
+      return etag != null || lastModified > 0;
+    }
+  }
+
+  /**
+   * Returns the artifact behind the url, downloading it only if it is not cached or changed. The
+   * returned artifact is pinned and has to be {@link #release(Artifact) released} after use.
+   *
+   * @param codeUrl the url of the artifact
+   * @return the cached artifact
+   * @throws IOException if the artifact could not be downloaded
+   */
+  public Artifact fetch(String codeUrl) throws IOException {
+
+    final Artifact fresh = cached(codeUrl, true);
+    if (fresh != null) {
+      LOGGER.debug("Serving code artifact {} from cache as {}", codeUrl, fresh.hash);
+      return fresh;
+    }
+
+    final UrlEntry known = urlEntry(codeUrl);
+    final URLConnection connection = new URL(codeUrl).openConnection();
+    if (known != null && connection instanceof HttpURLConnection) {
+      if (known.etag != null) {
+        connection.setRequestProperty("If-None-Match", known.etag);
+      }
+      if (known.lastModified > 0) {
+        connection.setIfModifiedSince(known.lastModified);
+      }
+    }
+
+    if (connection instanceof HttpURLConnection && known != null && known.hasValidators()
+        && ((HttpURLConnection) connection).getResponseCode()
+        == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      ((HttpURLConnection) connection).disconnect();
+      final Artifact unchanged = revalidated(codeUrl, known);
+      if (unchanged != null) {
+        LOGGER.debug("Code artifact {} is unchanged, serving it from cache as {}", codeUrl,
+            unchanged.hash);
+        return unchanged;
+      }
+      //the artifact was evicted meanwhile, download it again
+      return fetch(codeUrl, new URL(codeUrl).openConnection());
+    }
+
+    return fetch(codeUrl, connection);
+  }
+
+  private Artifact fetch(String codeUrl, URLConnection connection) throws IOException {
+    Files.createDirectories(directory);
+    final Path download = Files.createTempFile(directory, "download", ".tmp");
+    try {
+      final String hash;
+      try (InputStream source = connection.getInputStream();
+          HashingInputStream stream = new HashingInputStream(Hashing.sha256(), source)) {
+        Files.copy(stream, download, StandardCopyOption.REPLACE_EXISTING);
+        hash = stream.hash().toString();
+      }
+      LOGGER.info("Downloaded code artifact {} as {}", codeUrl, hash);
+      return add(codeUrl,
+          new UrlEntry(hash, System.currentTimeMillis(), connection.getHeaderField("ETag"),
+              connection.getLastModified()), download);
+    } finally {
+      Files.deleteIfExists(download);
+    }
+  }
+
+  /**
+   * Releases an artifact returned by {@link #fetch(String)}, allowing it to be evicted again.
+   *
+   * @param artifact the artifact
+   */
+  public synchronized void release(Artifact artifact) {
+    final Integer count = pins.get(artifact.hash);
+    if (count == null) {
+      return;
+    }
+    if (count == 1) {
+      pins.remove(artifact.hash);
+    } else {
+      pins.put(artifact.hash, count - 1);
+    }
+    evict(null);
+  }
+
+  private synchronized UrlEntry urlEntry(String codeUrl) {
+    return urls.get(codeUrl);
+  }
+
+  private synchronized Artifact cached(String codeUrl, boolean withinTtl) {
+    final UrlEntry urlEntry = urls.get(codeUrl);
+    if (urlEntry == null || (withinTtl
+        && System.currentTimeMillis() - urlEntry.fetched >= urlTtl)) {
+      return null;
+    }
+    final Artifact artifact = artifacts.get(urlEntry.hash);
+    if (artifact == null || !Files.exists(artifact.file)) {
+      return null;
+    }
+    pin(artifact);
+    return artifact;
+  }
+
+  private synchronized Artifact revalidated(String codeUrl, UrlEntry known) {
+    final Artifact artifact = cached(codeUrl, false);
+    if (artifact != null) {
+      urls.put(codeUrl,
+          new UrlEntry(known.hash, System.currentTimeMillis(), known.etag, known.lastModified));
+    }
+    return artifact;
+  }
+
+  /**
+   * Moves the download into the cache. Done while holding the lock, so that a concurrent
+   * eviction of an artifact with the same content can not delete the new file.
+   */
+  private synchronized Artifact add(String codeUrl, UrlEntry urlEntry, Path download)
+      throws IOException {
+    final Path file = directory.resolve(urlEntry.hash + ".zip");
+    Files.move(download, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    final Artifact artifact = new Artifact(urlEntry.hash, file, Files.size(file));
+
+    urls.put(codeUrl, urlEntry);
+    final Artifact previous = artifacts.put(artifact.hash, artifact);
+    if (previous != null) {
+      size -= previous.size;
+    }
+    size += artifact.size;
+    pin(artifact);
+    evict(artifact.hash);
+    return artifact;
+  }
+
+  private void pin(Artifact artifact) {
+    pins.merge(artifact.hash, 1, Integer::sum);
+  }
+
+  private void evict(String keep) {
+    final Iterator<Artifact> iterator = artifacts.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      final Artifact eldest = iterator.next();
+      if (eldest.hash.equals(keep) || pins.containsKey(eldest.hash)) {
+        continue;
+      }
+      iterator.remove();
+      size -= eldest.size;
+      urls.values().removeIf(urlEntry -> urlEntry.hash.equals(eldest.hash));
+      try {
+        Files.deleteIfExists(eldest.file);
+        LOGGER.debug("Evicted code artifact {}", eldest.hash);
+      } catch (IOException e) {
+        LOGGER.warn("Could not delete evicted code artifact {}", eldest.file, e);
+      }
+    }
+  }
+
+  /**
+   * @return the total size of all cached artifacts in bytes
+   */
+  public synchronized long size() {
+    return size;
+  }
+}
@@ -0,0 +1,112 @@
+package org.example.cloudformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.github.cloudiator.deployment.faasagent.cloudformation.CodeArtifactCache;
+import io.github.cloudiator.deployment.faasagent.cloudformation.CodeArtifactCache.Artifact;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class CodeArtifactCacheTest {
+
+  private static Path source(Path directory, String name, String content) throws IOException {
+    return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void fetchServesKnownUrlFromCache() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    CodeArtifactCache cache = new CodeArtifactCache(Files.createTempDirectory("cache"), 1024,
+        TimeUnit.HOURS.toMillis(1));
+    Path code = source(sources, "code.zip", "function code");
+
+    Artifact first = cache.fetch(code.toUri().toString());
+    // a second fetch must not touch the source again
+    Files.delete(code);
+    Artifact second = cache.fetch(code.toUri().toString());
+
+    assertEquals(first.hash(), second.hash());
+    assertTrue(Files.exists(second.file()));
+  }
+
+  @Test
+  public void fetchPicksUpChangedContent() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    CodeArtifactCache cache = new CodeArtifactCache(Files.createTempDirectory("cache"), 1024);
+    Path code = source(sources, "code.zip", "function code");
+
+    Artifact first = cache.fetch(code.toUri().toString());
+    source(sources, "code.zip", "changed function code");
+    Artifact second = cache.fetch(code.toUri().toString());
+
+    assertFalse(first.hash().equals(second.hash()));
+  }
+
+  @Test
+  public void fetchKeysArtifactsByContent() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    CodeArtifactCache cache = new CodeArtifactCache(Files.createTempDirectory("cache"), 1024);
+
+    Artifact first = cache.fetch(source(sources, "a.zip", "same").toUri().toString());
+    Artifact second = cache.fetch(source(sources, "b.zip", "same").toUri().toString());
+    Artifact third = cache.fetch(source(sources, "c.zip", "other").toUri().toString());
+
+    assertEquals(first.hash(), second.hash());
+    assertFalse(first.hash().equals(third.hash()));
+    assertEquals(first.size() + third.size(), cache.size());
+  }
+
+  @Test
+  public void fetchEvictsLeastRecentlyUsed() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    CodeArtifactCache cache = new CodeArtifactCache(Files.createTempDirectory("cache"), 10);
+
+    Artifact first = cache.fetch(source(sources, "a.zip", "aaaaaa").toUri().toString());
+    cache.release(first);
+    Artifact second = cache.fetch(source(sources, "b.zip", "bbbbbb").toUri().toString());
+
+    assertFalse(Files.exists(first.file()));
+    assertTrue(Files.exists(second.file()));
+    assertEquals(second.size(), cache.size());
+  }
+
+  @Test
+  public void fetchKeepsPinnedArtifactsUntilReleased() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    CodeArtifactCache cache = new CodeArtifactCache(Files.createTempDirectory("cache"), 10);
+
+    Artifact first = cache.fetch(source(sources, "a.zip", "aaaaaa").toUri().toString());
+    Artifact second = cache.fetch(source(sources, "b.zip", "bbbbbb").toUri().toString());
+
+    // the first artifact is still in use, e.g. being uploaded
+    assertTrue(Files.exists(first.file()));
+
+    cache.release(first);
+    assertFalse(Files.exists(first.file()));
+    assertTrue(Files.exists(second.file()));
+    assertEquals(second.size(), cache.size());
+  }
+
+  @Test
+  public void constructorLoadsArtifactsOfPreviousRun() throws IOException {
+    Path sources = Files.createTempDirectory("sources");
+    Path directory = Files.createTempDirectory("cache");
+    CodeArtifactCache previous = new CodeArtifactCache(directory, 1024);
+    Artifact first = previous.fetch(source(sources, "a.zip", "aaaaaa").toUri().toString());
+    Path interrupted = source(directory, "download1.tmp", "partial");
+
+    CodeArtifactCache cache = new CodeArtifactCache(directory, 1024);
+
+    assertEquals(first.size(), cache.size());
+    assertFalse(Files.exists(interrupted));
+    Artifact second = cache.fetch(source(sources, "b.zip", "aaaaaa").toUri().toString());
+    assertEquals(first.hash(), second.hash());
+    assertEquals(first.size(), cache.size());
+  }
+}
@@ -16,7 +16,12 @@
 
 package io.github.cloudiator.deployment.lance;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import de.uniulm.omi.cloudiator.domain.OperatingSystemArchitecture;
 import de.uniulm.omi.cloudiator.domain.OperatingSystemFamily;
 import de.uniulm.omi.cloudiator.domain.OperatingSystemImpl;
@@ -30,8 +35,12 @@ import de.uniulm.omi.cloudiator.lance.application.component.DockerComponent;
 import de.uniulm.omi.cloudiator.lance.application.component.RemoteDockerComponent;
 import de.uniulm.omi.cloudiator.lance.client.LifecycleClient;
 import de.uniulm.omi.cloudiator.lance.lca.container.ComponentInstanceId;
+import de.uniulm.omi.cloudiator.lance.lca.container.ContainerStatus;
 import de.uniulm.omi.cloudiator.lance.lca.container.ContainerType;
 import de.uniulm.omi.cloudiator.lance.lca.registry.RegistrationException;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
+import io.github.cloudiator.deployment.config.Constants;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.Type;
@@ -44,19 +53,27 @@ import io.github.cloudiator.deployment.domain.TaskInterface;
 import io.github.cloudiator.domain.Node;
 import java.io.IOException;
 import java.util.UUID;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
+import javax.inject.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * @// TODO: 16.04.19 Refactor this class
  */
+@Singleton
 public class CreateLanceProcessStrategy {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CreateLanceProcessStrategy.class);
   private final LanceInstallationStrategy lanceInstallationStrategy;
   private final LanceClientConnector lanceClientConnector;
+  private final long pollInterval;
+  private final long deploymentTimeout;
+  private final LoggingThreadPoolExecutor deploymentExecutor;
+  private final LoggingScheduledThreadPoolExecutor pollExecutor;
   private static final OperatingSystemImpl staticOsImpl;
 
   static {
@@ -69,9 +86,29 @@ public class CreateLanceProcessStrategy {
   @Inject
   CreateLanceProcessStrategy(
       LanceInstallationStrategy lanceInstallationStrategy,
-      LanceClientConnector lanceClientConnector) {
+      LanceClientConnector lanceClientConnector,
+      @Named(Constants.LANCE_DEPLOYMENT_PARALLELISM) int parallelism,
+      @Named(Constants.LANCE_DEPLOYMENT_POLL_INTERVAL) long pollInterval,
+      @Named(Constants.LANCE_DEPLOYMENT_TIMEOUT) long deploymentTimeout) {
     this.lanceInstallationStrategy = lanceInstallationStrategy;
     this.lanceClientConnector = lanceClientConnector;
+    this.pollInterval = pollInterval;
+    this.deploymentTimeout = deploymentTimeout;
+    this.deploymentExecutor = new LoggingThreadPoolExecutor(parallelism, parallelism, 0L,
+        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    MoreExecutors.addDelayedShutdownHook(deploymentExecutor, 1, TimeUnit.MINUTES);
+    this.pollExecutor = new LoggingScheduledThreadPoolExecutor(2);
+    MoreExecutors.addDelayedShutdownHook(pollExecutor, 1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Deploys a component using an already initialized deployment context.
+   */
+  @FunctionalInterface
+  private interface ComponentDeployment {
+
+    ComponentInstanceId deploy(LifecycleClient lifecycleClient,
+        DeploymentContext deploymentContext) throws Exception;
   }
 
 
@@ -105,35 +142,74 @@ public class CreateLanceProcessStrategy {
   public CloudiatorProcess execute(String userId, String schedule, Job job, Task task, Node node,
       TaskInterface taskInterface) {
 
+    try {
+      return executeAsync(userId, schedule, job, task, node, taskInterface).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while creating lance process.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Error while creating lance process.", e.getCause());
+    }
+  }
+
+  public ListenableFuture<CloudiatorProcess> executeAsync(String userId, String schedule,
+      Job job, Task task, Node node, TaskInterface taskInterface) {
+
     LOGGER.info(String
         .format("Creating new CloudiatorProcess for user: %s, schedule %s, task %s on node %s",
             userId, schedule, task, node));
 
+    //the installation is only requested here, the component is built while it is running
+    final ListenableFuture<?> installation;
+    final ComponentDeployment componentDeployment;
     if (taskInterface instanceof LanceInterface) {
       ContainerType containerType =
           deriveContainerType(task.interfaceOfType(LanceInterface.class), node);
       LOGGER.debug(
           "Executing lance installation strategy for a process connected with a LanceInterface");
-      lanceInstallationStrategy.execute(userId, node, containerType);
+      installation = lanceInstallationStrategy.executeAsync(userId, node, containerType);
+      LOGGER.debug("Building a LifecycleComponent for a " + containerType
+          + " container connected with a LanceInterface");
+      componentDeployment = lifecycleComponent(job, task, (LanceInterface) taskInterface,
+          containerType);
     } else if (taskInterface instanceof DockerInterface) {
       LOGGER.debug(
           "Executing lance installation strategy for a process connected with a DockerInterface");
-      lanceInstallationStrategy.execute(userId, node);
+      installation = lanceInstallationStrategy.executeAsync(userId, node);
+      LOGGER.debug("Building a DockerComponent for a container connected with a DockerInterface");
+      componentDeployment = dockerComponent(job, task, (DockerInterface) taskInterface);
     } else {
       throw new AssertionError("Unknown task interface type " + taskInterface.getClass().getName());
     }
 
+    final ListenableFuture<Object> installed = Futures
+        .catching(installation, Exception.class, e -> {
+          throw new IllegalStateException("Error during installation", e);
+        }, MoreExecutors.directExecutor());
+
+    return Futures.transformAsync(installed,
+        response -> deploy(new DeploymentRequest(task, job, schedule, node, userId, taskInterface),
+            componentDeployment), deploymentExecutor);
+  }
+
+  private ListenableFuture<CloudiatorProcess> deploy(DeploymentRequest request,
+      ComponentDeployment componentDeployment) {
+
+    final String ip = request.node.connectTo().ip();
+
     final LifecycleClient lifecycleClient;
     try {
-      lifecycleClient = lanceClientConnector.getLifecycleClient(
-          node.connectTo().ip());
+      lifecycleClient = lanceClientConnector.getLifecycleClient(ip);
     } catch (IOException e) {
       throw new IllegalStateException("Error retrieving lifecycle client.", e);
     }
 
-    final ApplicationId applicationId = ApplicationId.fromString(job.id());
+    final ApplicationId applicationId = ApplicationId.fromString(request.job.id());
     final ApplicationInstanceId applicationInstanceId = ApplicationInstanceId
-        .fromString(schedule);
+        .fromString(request.schedule);
 
     LOGGER.debug(String.format(
         "Registering new applicationInstance %s for application %s at lance using client %s",
@@ -146,7 +222,7 @@ public class CreateLanceProcessStrategy {
       //if the instance could still be registered we need to register its subparts
       if (couldRegister) {
         registerApplicationComponentsForApplicationInstance(lifecycleClient,
-            applicationInstanceId, job);
+            applicationInstanceId, request.job);
         LOGGER.debug(String.format(
             "Could register applicationInstance %s, therefore registering all components of the job",
             applicationInstanceId));
@@ -157,6 +233,7 @@ public class CreateLanceProcessStrategy {
       }
 
     } catch (RegistrationException e) {
+      lanceClientConnector.invalidateOnFailure(ip, e);
       throw new IllegalStateException("Could not register application instance", e);
     }
 
@@ -164,134 +241,157 @@ public class CreateLanceProcessStrategy {
         lifecycleClient.initDeploymentContext(applicationId, applicationInstanceId);
     LOGGER.debug(String.format("Initialized deployment context %s.", deploymentContext));
 
-    DeploymentInfo deplInfo = new DeploymentInfo(task, job, deploymentContext, schedule, node,
-        userId, taskInterface);
+    final DeploymentInfo deploymentInfo = new DeploymentInfo(request.task, request.job,
+        deploymentContext, request.schedule, request.node, request.userId,
+        request.taskInterface);
 
-    if (taskInterface instanceof LanceInterface) {
-      ContainerType containerType =
-          deriveContainerType(task.interfaceOfType(LanceInterface.class), node);
-      LOGGER.debug("Deploying a LifecycleComponent for a " + containerType
-          + " container connected with a LanceInterface");
-      return deployLifecycleComponent(deplInfo, lifecycleClient, containerType);
-    } else {
-      LOGGER.debug("Deploying a DockerComponent for a container connected with a DockerInterface");
-      return deployDockerComponent(deplInfo, lifecycleClient);
+    new RegisterTaskDeploymentContextVisitor(request.job, request.task)
+        .visitDeploymentContext(deploymentContext);
+
+    final ComponentInstanceId componentInstanceId;
+    try {
+      componentInstanceId = componentDeployment.deploy(lifecycleClient, deploymentContext);
+    } catch (Exception e) {
+      lanceClientConnector.invalidateOnFailure(ip, e);
+      return Futures.immediateFuture(failProcess(null, deploymentInfo, e));
     }
+
+    final ListenableFuture<CloudiatorProcess> process = Futures
+        .transform(awaitDeployment(lifecycleClient, ip, componentInstanceId),
+            cId -> convertToProcess(cId, deploymentInfo), MoreExecutors.directExecutor());
+
+    return Futures.catching(process, Exception.class, e -> {
+      lanceClientConnector.invalidateOnFailure(ip, e);
+      return failProcess(componentInstanceId, deploymentInfo, e);
+    }, MoreExecutors.directExecutor());
   }
 
-  private CloudiatorProcess deployLifecycleComponent(DeploymentInfo deployInfo,
-      LifecycleClient lifecycleClient, ContainerType containerType) {
+  private ComponentDeployment lifecycleComponent(Job job, Task task,
+      LanceInterface lanceInterface, ContainerType containerType) {
     LOGGER.debug(String
-        .format("Creating Lifecycle component for task %s.",
-            deployInfo.task));
-    final DeployableComponent deployableComponent = new DeployableComponentSupplier(deployInfo.job,
-        deployInfo.task, (LanceInterface) deployInfo.taskInterface).get();
+        .format("Creating Lifecycle component for task %s.", task));
+    final DeployableComponent deployableComponent = new DeployableComponentSupplier(job,
+        task, lanceInterface).get();
     LOGGER.debug(
         String.format("Successfully build Lifecycle component %s", deployableComponent));
 
-    new RegisterTaskDeploymentContextVisitor(deployInfo.job, deployInfo.task)
-        .visitDeploymentContext(deployInfo.deploymentContext);
-
-    LOGGER.debug(String.format(
-        "Calling client %s to deploy instance using: deploymentContext %s, Lifecycle Component %s, containerType %s.",
-        lifecycleClient, deployInfo.deploymentContext, deployableComponent, containerType));
-
-    return callToDeploy(lifecycleClient, deployInfo, new Callable<ComponentInstanceId>() {
-      @Override
-      public ComponentInstanceId call() throws Exception {
-        return lifecycleClient
-            .deploy(deployInfo.deploymentContext, deployableComponent, staticOsImpl,
-                containerType);
-      }
-    });
+    return (lifecycleClient, deploymentContext) -> {
+      LOGGER.debug(String.format(
+          "Calling client %s to deploy instance using: deploymentContext %s, Lifecycle Component %s, containerType %s.",
+          lifecycleClient, deploymentContext, deployableComponent, containerType));
+      return lifecycleClient
+          .deploy(deploymentContext, deployableComponent, staticOsImpl, containerType);
+    };
   }
 
-  private CloudiatorProcess deployDockerComponent(DeploymentInfo deployInfo,
-      LifecycleClient lifecycleClient) {
-    if (DockerComponentSupplier
-        .usePrivateRegistry(deployInfo.task.interfaceOfType(DockerInterface.class))) {
-      return deployPrivateDockerComponent(deployInfo, lifecycleClient);
+  private ComponentDeployment dockerComponent(Job job, Task task,
+      DockerInterface dockerInterface) {
+    if (DockerComponentSupplier.usePrivateRegistry(task.interfaceOfType(DockerInterface.class))) {
+      return privateDockerComponent(job, task, dockerInterface);
     } else {
-      return deployPublicDockerComponent(deployInfo, lifecycleClient);
+      return publicDockerComponent(job, task, dockerInterface);
     }
   }
 
-  private CloudiatorProcess deployPrivateDockerComponent(DeploymentInfo deployInfo,
-      LifecycleClient lifecycleClient) {
+  private ComponentDeployment privateDockerComponent(Job job, Task task,
+      DockerInterface dockerInterface) {
     LOGGER.debug(String
-        .format("Creating Private Docker component for task %s.",
-            deployInfo.task));
+        .format("Creating Private Docker component for task %s.", task));
 
     final RemoteDockerComponent remoteDockerComponent = new PrivateDockerComponentSupplier(
-        deployInfo.job, deployInfo.task, (DockerInterface) deployInfo.taskInterface).get();
+        job, task, dockerInterface).get();
     LOGGER.debug(
         String.format("Successfully build Private Docker component %s", remoteDockerComponent));
 
-    new RegisterTaskDeploymentContextVisitor(deployInfo.job, deployInfo.task)
-        .visitDeploymentContext(deployInfo.deploymentContext);
-
-    LOGGER.debug(String.format(
-        "Calling client %s to deploy instance using: deploymentContext %s, Private Docker Component %s.",
-        lifecycleClient, deployInfo.deploymentContext, remoteDockerComponent));
-
-    return this.callToDeploy(lifecycleClient, deployInfo, new Callable<ComponentInstanceId>() {
-      @Override
-      public ComponentInstanceId call() throws Exception {
-        return lifecycleClient
-            .deploy(deployInfo.deploymentContext, remoteDockerComponent);
-      }
-    });
-  }
-
-  private CloudiatorProcess callToDeploy(LifecycleClient lifecycleClient,
-      DeploymentInfo deploymentInfo,
-      Callable<ComponentInstanceId> deployLogic) {
-
-    ComponentInstanceId componentInstanceId = null;
-    try {
-      componentInstanceId = deployLogic.call();
-    } catch (Exception e) {
-      return failProcess(null, deploymentInfo, e);
-    }
-
-    try {
-      waitForDeployment(lifecycleClient, componentInstanceId);
-    } catch (Exception e) {
-      return failProcess(componentInstanceId, deploymentInfo, e);
-    }
-
-    return convertToProcess(componentInstanceId, deploymentInfo);
+    return (lifecycleClient, deploymentContext) -> {
+      LOGGER.debug(String.format(
+          "Calling client %s to deploy instance using: deploymentContext %s, Private Docker Component %s.",
+          lifecycleClient, deploymentContext, remoteDockerComponent));
+      return lifecycleClient.deploy(deploymentContext, remoteDockerComponent);
+    };
   }
 
-  private CloudiatorProcess deployPublicDockerComponent(DeploymentInfo deployInfo,
-      LifecycleClient lifecycleClient) {
+  private ComponentDeployment publicDockerComponent(Job job, Task task,
+      DockerInterface dockerInterface) {
     LOGGER.debug(String
-        .format("Creating Public Docker component for task %s.",
-            deployInfo.task));
+        .format("Creating Public Docker component for task %s.", task));
 
-    final DockerComponent dockerComponent = new PublicDockerComponentSupplier(deployInfo.job,
-        deployInfo.task, (DockerInterface) deployInfo.taskInterface).get();
+    final DockerComponent dockerComponent = new PublicDockerComponentSupplier(job,
+        task, dockerInterface).get();
     LOGGER.debug(
         String.format("Successfully build Public Docker component %s", dockerComponent));
 
-    new RegisterTaskDeploymentContextVisitor(deployInfo.job, deployInfo.task)
-        .visitDeploymentContext(deployInfo.deploymentContext);
+    return (lifecycleClient, deploymentContext) -> {
+      LOGGER.debug(String.format(
+          "Calling client %s to deploy instance using: deploymentContext %s, Public Docker Component %s.",
+          lifecycleClient, deploymentContext, dockerComponent));
+      return lifecycleClient.deploy(deploymentContext, dockerComponent);
+    };
+  }
+
+  /**
+   * Waits for the deployment by polling the container status instead of blocking a thread in
+   * {@link LifecycleClient#waitForDeployment(ComponentInstanceId)}.
+   */
+  private ListenableFuture<ComponentInstanceId> awaitDeployment(LifecycleClient lifecycleClient,
+      String ip, ComponentInstanceId componentInstanceId) {
+    final SettableFuture<ComponentInstanceId> future = SettableFuture.create();
+    final long deadline = System.currentTimeMillis() + deploymentTimeout;
+    pollExecutor.execute(
+        () -> pollDeployment(lifecycleClient, ip, componentInstanceId, deadline, future));
+    return future;
+  }
 
-    LOGGER.debug(String.format(
-        "Calling client %s to deploy instance using: deploymentContext %s, Public Docker Component %s.",
-        lifecycleClient, deployInfo.deploymentContext, dockerComponent));
-
-    return callToDeploy(lifecycleClient, deployInfo, new Callable<ComponentInstanceId>() {
-      @Override
-      public ComponentInstanceId call() throws Exception {
-        return lifecycleClient
-            .deploy(deployInfo.deploymentContext, dockerComponent);
+  private void pollDeployment(LifecycleClient lifecycleClient, String ip,
+      ComponentInstanceId componentInstanceId, long deadline,
+      SettableFuture<ComponentInstanceId> future) {
+
+    final ContainerStatus containerStatus;
+    try {
+      containerStatus = lifecycleClient.getComponentContainerStatus(componentInstanceId, ip);
+    } catch (Exception e) {
+      //e.g. a transient rmi error, retried until the deadline
+      if (System.currentTimeMillis() > deadline) {
+        future.setException(e);
+        return;
       }
-    });
+      LOGGER.warn(String.format(
+          "Error %s while polling the status of component instance %s. Retrying in %s ms.",
+          e.getMessage(), componentInstanceId, pollInterval), e);
+      schedulePoll(lifecycleClient, ip, componentInstanceId, deadline, future);
+      return;
+    }
+
+    switch (containerStatus) {
+      case READY:
+        future.set(componentInstanceId);
+        return;
+      case SHUTTING_DOWN:
+      case DESTROYED:
+      case CREATION_FAILED:
+      case BOOTSTRAPPING_FAILED:
+      case INITIALISATION_FAILED:
+        future.setException(new IllegalStateException(String
+            .format("Deployment of component instance %s failed with container status %s.",
+                componentInstanceId, containerStatus)));
+        return;
+      default:
+        if (System.currentTimeMillis() > deadline) {
+          future.setException(new IllegalStateException(String
+              .format("Component instance %s did not become ready in time, last status was %s.",
+                  componentInstanceId, containerStatus)));
+          return;
+        }
+        schedulePoll(lifecycleClient, ip, componentInstanceId, deadline, future);
+    }
   }
 
-  private void waitForDeployment(LifecycleClient client, ComponentInstanceId componentInstanceId) {
-    client.waitForDeployment(componentInstanceId);
+  private void schedulePoll(LifecycleClient lifecycleClient, String ip,
+      ComponentInstanceId componentInstanceId, long deadline,
+      SettableFuture<ComponentInstanceId> future) {
+    pollExecutor.schedule(
+        () -> pollDeployment(lifecycleClient, ip, componentInstanceId, deadline, future),
+        pollInterval, TimeUnit.MILLISECONDS);
   }
 
   private CloudiatorProcess convertToProcess(ComponentInstanceId cId,
@@ -363,6 +463,26 @@ public class CreateLanceProcessStrategy {
     }
   }
 
+  private static class DeploymentRequest {
+
+    private final Task task;
+    private final Job job;
+    private final String schedule;
+    private final Node node;
+    private final String userId;
+    private final TaskInterface taskInterface;
+
+    private DeploymentRequest(Task task, Job job, String schedule, Node node, String userId,
+        TaskInterface taskInterface) {
+      this.task = task;
+      this.job = job;
+      this.schedule = schedule;
+      this.node = node;
+      this.userId = userId;
+      this.taskInterface = taskInterface;
+    }
+  }
+
   private static class DeploymentInfo {
 
     private final Task task;
@@ -16,6 +16,10 @@
 
 package io.github.cloudiator.deployment.lance;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.Job;
@@ -27,6 +31,7 @@ import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import org.cloudiator.messages.General.Error;
+import org.cloudiator.messages.Process.CreateLanceProcessRequest;
 import org.cloudiator.messages.Process.LanceProcessCreatedResponse;
 import org.cloudiator.messaging.MessageInterface;
 import org.cloudiator.messaging.services.ProcessService;
@@ -84,30 +89,45 @@ public class CreateLanceProcessSubscriber implements Runnable {
                     "Illegal TaskInterface " + content.getLance().getTaskInterfaceCase());
             }
 
-            final CloudiatorProcess cloudiatorProcess = createLanceProcessStrategy
-                .execute(userId, schedule, job, job.getTask(task).orElseThrow(
+            final ListenableFuture<CloudiatorProcess> process = createLanceProcessStrategy
+                .executeAsync(userId, schedule, job, job.getTask(task).orElseThrow(
                     () -> new IllegalStateException(
-                        String.format("Job %s does not contain task %s", job, task))), node, taskInterface);
-
-            final LanceProcessCreatedResponse lanceProcessCreatedResponse = LanceProcessCreatedResponse
-                .newBuilder()
-                .setProcess(PROCESS_MESSAGE_CONVERTER.applyBack(cloudiatorProcess)).build();
-
-            messageInterface.reply(id, lanceProcessCreatedResponse);
+                        String.format("Job %s does not contain task %s", job, task))), node,
+                    taskInterface);
+
+            //reply once the deployment finished, without blocking the subscriber
+            Futures.addCallback(process, new FutureCallback<CloudiatorProcess>() {
+              @Override
+              public void onSuccess(CloudiatorProcess cloudiatorProcess) {
+                final LanceProcessCreatedResponse lanceProcessCreatedResponse = LanceProcessCreatedResponse
+                    .newBuilder()
+                    .setProcess(PROCESS_MESSAGE_CONVERTER.applyBack(cloudiatorProcess)).build();
+
+                messageInterface.reply(id, lanceProcessCreatedResponse);
+              }
+
+              @Override
+              public void onFailure(Throwable t) {
+                replyError(id, content, t);
+              }
+            }, MoreExecutors.directExecutor());
 
           } catch (Exception e) {
-            final String errorMessage = String
-                .format("Exception %s while processing request %s with id %s.", e.getMessage(),
-                    content, id);
+            replyError(id, content, e);
+          }
 
-            LOGGER.error(errorMessage, e);
 
-            messageInterface.reply(LanceProcessCreatedResponse.class, id,
-                Error.newBuilder().setMessage(errorMessage).setCode(500).build());
+        });
+  }
 
-          }
+  private void replyError(String id, CreateLanceProcessRequest content, Throwable t) {
+    final String errorMessage = String
+        .format("Exception %s while processing request %s with id %s.", t.getMessage(),
+            content, id);
 
+    LOGGER.error(errorMessage, t);
 
-        });
+    messageInterface.reply(LanceProcessCreatedResponse.class, id,
+        Error.newBuilder().setMessage(errorMessage).setCode(500).build());
   }
 }
@@ -49,6 +49,8 @@ public class DeleteLanceProcessStrategy {
       lifecycleClient.undeploy(ComponentInstanceId.fromString(processId), false);
     } catch (DeploymentException | IOException e) {
 
+      lanceClientConnector.invalidateOnFailure(node.connectTo().ip(), e);
+
       LOGGER.warn(String
           .format("Deleting process %s failed with exception: %s. Now deleting from registry.",
               processId, e.getMessage()), e);
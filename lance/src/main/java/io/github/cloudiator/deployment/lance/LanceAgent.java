@@ -20,6 +20,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import io.github.cloudiator.deployment.config.DeploymentContext;
 import io.github.cloudiator.deployment.config.DeploymentModule;
+import io.github.cloudiator.deployment.messaging.NodeInstallationCacheSubscriber;
 import org.cloudiator.messaging.kafka.KafkaContext;
 import org.cloudiator.messaging.kafka.KafkaMessagingModule;
 import org.cloudiator.messaging.services.MessageServiceModule;
@@ -35,6 +36,7 @@ public class LanceAgent {
     INJECTOR.getInstance(CreateLanceProcessSubscriber.class).run();
     INJECTOR.getInstance(DeleteLanceProcessSubscriber.class).run();
     INJECTOR.getInstance(LanceProcessStatusSubscriber.class).run();
+    INJECTOR.getInstance(NodeInstallationCacheSubscriber.class).run();
   }
 
 }
@@ -21,25 +21,97 @@ import com.github.rholder.retry.Retryer;
 import com.github.rholder.retry.RetryerBuilder;
 import com.github.rholder.retry.StopStrategies;
 import com.github.rholder.retry.WaitStrategies;
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import de.uniulm.omi.cloudiator.lance.client.LifecycleClient;
 import de.uniulm.omi.cloudiator.lance.client.LifecycleClientRegistryWrapper;
 import java.io.IOException;
 import java.rmi.ConnectException;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Hands out {@link LifecycleClient}s for lance agents.
+ *
+ * <p>Clients are cached per agent ip and connection settings and reused until they were idle for {@link
+ * #IDLE_TIMEOUT_MINUTES} or a call on them failed with a {@link RemoteException}, in which case
+ * the caller is expected to report the failure using {@link #invalidateOnFailure(String,
+ * Throwable)}. Concurrent requests for the same ip share a single connection attempt.
+ */
+@Singleton
 public class LanceClientConnector {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(LanceClientConnector.class);
+
+  private static final long IDLE_TIMEOUT_MINUTES = 10;
+  private static final long BACKOFF_MULTIPLIER_MILLIS = 500;
+  private static final long BACKOFF_MAXIMUM_SECONDS = 20;
+  private static final long BACKOFF_JITTER_MILLIS = 1000;
+  private static final int MAX_ATTEMPTS = 8;
+
   @Inject(optional = true)
   @Named("lance.rmiTimeout")
   private int rmiTimeout = 0;
 
+  private final Cache<ClientKey, LifecycleClient> clients = CacheBuilder.newBuilder()
+      .expireAfterAccess(IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+      .removalListener((RemovalListener<ClientKey, LifecycleClient>) notification -> LOGGER
+          .debug(String.format("Evicted lifecycle client %s (%s).",
+              notification.getKey(), notification.getCause())))
+      .build();
+
+  private static final class ClientKey {
+
+    private final String serverIp;
+    private final int rmiTimeout;
+    private final boolean retry;
+
+    private ClientKey(String serverIp, int rmiTimeout, boolean retry) {
+      this.serverIp = serverIp;
+      this.rmiTimeout = rmiTimeout;
+      this.retry = retry;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ClientKey clientKey = (ClientKey) o;
+      return rmiTimeout == clientKey.rmiTimeout &&
+          retry == clientKey.retry &&
+          serverIp.equals(clientKey.serverIp);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(serverIp, rmiTimeout, retry);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("serverIp", serverIp)
+          .add("rmiTimeout", rmiTimeout).add("retry", retry).toString();
+    }
+  }
+
   @Inject
   public LanceClientConnector() {
   }
@@ -51,6 +123,39 @@ public class LanceClientConnector {
   LifecycleClient getLifecycleClient(String serverIp, int rmiTimeout, boolean retry)
       throws IOException {
 
+    try {
+      return clients.get(new ClientKey(serverIp, rmiTimeout, retry),
+          () -> connect(serverIp, rmiTimeout, retry));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Error connecting to lifecycle agent.", e.getCause());
+    }
+  }
+
+  /**
+   * Drops the cached client of the given agent if the failure was caused by the remote side, so
+   * that the next request establishes a fresh connection.
+   *
+   * @param serverIp the ip of the lance agent
+   * @param failure the failure raised while using the client
+   */
+  void invalidateOnFailure(String serverIp, Throwable failure) {
+    for (Throwable cause : Throwables.getCausalChain(failure)) {
+      if (cause instanceof RemoteException || cause instanceof NotBoundException) {
+        LOGGER.info(String
+            .format("Invalidating lifecycle client for lance agent %s due to remote failure: %s",
+                serverIp, cause.getMessage()));
+        clients.asMap().keySet().removeIf(key -> key.serverIp.equals(serverIp));
+        return;
+      }
+    }
+  }
+
+  private static LifecycleClient connect(String serverIp, int rmiTimeout, boolean retry)
+      throws IOException {
+
     Callable<LifecycleClient> createLifecycleClient = new Callable<LifecycleClient>() {
       public LifecycleClient call() throws Exception {
         return LifecycleClient
@@ -66,13 +171,18 @@ public class LanceClientConnector {
       }
     }
 
+    //exponential backoff with jitter, so that agents which are just starting are probed quickly
+    //and clients for many agents do not retry in lockstep
     Retryer<LifecycleClient> retryer = RetryerBuilder.<LifecycleClient>newBuilder()
         .retryIfResult(Predicates.<LifecycleClient>isNull())
         .retryIfExceptionOfType(RemoteException.class)
         .retryIfExceptionOfType(NotBoundException.class)
         .retryIfExceptionOfType(ConnectException.class)
-        .withWaitStrategy(WaitStrategies.fixedWait(20, TimeUnit.SECONDS))
-        .withStopStrategy(StopStrategies.stopAfterAttempt(5))
+        .withWaitStrategy(WaitStrategies.join(
+            WaitStrategies.exponentialWait(BACKOFF_MULTIPLIER_MILLIS, BACKOFF_MAXIMUM_SECONDS,
+                TimeUnit.SECONDS),
+            WaitStrategies.randomWait(BACKOFF_JITTER_MILLIS, TimeUnit.MILLISECONDS)))
+        .withStopStrategy(StopStrategies.stopAfterAttempt(MAX_ATTEMPTS))
         .build();
 
     final LifecycleClient lifecycleClient;
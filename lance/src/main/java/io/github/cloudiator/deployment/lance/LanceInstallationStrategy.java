@@ -16,25 +16,21 @@
 
 package io.github.cloudiator.deployment.lance;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.lance.lca.container.ContainerType;
 import io.github.cloudiator.deployment.config.Constants;
+import io.github.cloudiator.deployment.messaging.NodeInstallationCache;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import javax.inject.Named;
-import org.cloudiator.messages.Installation.InstallationRequest;
-import org.cloudiator.messages.Installation.InstallationResponse;
-import org.cloudiator.messages.InstallationEntities.Installation;
-import org.cloudiator.messages.InstallationEntities.Installation.Builder;
 import org.cloudiator.messages.InstallationEntities.Tool;
-import org.cloudiator.messaging.SettableFutureResponseCallback;
-import org.cloudiator.messaging.services.InstallationRequestService;
 
 public class LanceInstallationStrategy {
 
-  private final InstallationRequestService installationRequestService;
-  private static final NodeToNodeMessageConverter nodeToNodeMessageConverter = NodeToNodeMessageConverter.INSTANCE;
+  private final NodeInstallationCache nodeInstallationCache;
 
   @Named(Constants.INSTALL_MELODIC_TOOLS)
   @Inject(optional = true)
@@ -42,51 +38,43 @@ public class LanceInstallationStrategy {
 
   @Inject
   public LanceInstallationStrategy(
-      InstallationRequestService installationRequestService) {
-    this.installationRequestService = installationRequestService;
+      NodeInstallationCache nodeInstallationCache) {
+    this.nodeInstallationCache = nodeInstallationCache;
   }
 
   void execute(String userId, Node node, ContainerType containerType) {
+    waitFor(executeAsync(userId, node, containerType));
+  }
+
+  ListenableFuture<?> executeAsync(String userId, Node node, ContainerType containerType) {
 
-    final Builder builder = Installation.newBuilder()
-        .setNode(nodeToNodeMessageConverter.apply(node))
-        .addTool(Tool.LANCE);
+    final Set<Tool> tools = EnumSet.of(Tool.LANCE);
     //Needed for Lifecycle DockerContainers
     if (ContainerType.DOCKER.equals(containerType) || ContainerType.DOCKER_REMOTE
         .equals(containerType)) {
-      builder.addTool(Tool.DOCKER);
+      tools.add(Tool.DOCKER);
     }
     //install Melodic specific tools
     if(installMelodicTools){
-      builder
-          .addTool(Tool.ALLUXIO_CLIENT)
-          .addTool(Tool.DLMS_AGENT);
+      tools.add(Tool.ALLUXIO_CLIENT);
+      tools.add(Tool.DLMS_AGENT);
     }
 
-    doExecute(builder, userId);
+    return nodeInstallationCache.install(userId, node, tools);
   }
 
   //DockerInterface doesn't need a containerType
   void execute(String userId, Node node) {
-
-    final Builder builder = Installation.newBuilder()
-        .setNode(nodeToNodeMessageConverter.apply(node))
-        .addTool(Tool.LANCE)
-        .addTool(Tool.DOCKER);
-    doExecute(builder, userId);
+    waitFor(executeAsync(userId, node));
   }
 
-  private void doExecute(Builder builder, String userId) {
-    final InstallationRequest installationRequest = InstallationRequest.newBuilder()
-        .setUserId(userId).setInstallation(builder.build()).build();
-
-    final SettableFutureResponseCallback<InstallationResponse, InstallationResponse> futureResponseCallback = SettableFutureResponseCallback
-        .create();
+  ListenableFuture<?> executeAsync(String userId, Node node) {
+    return nodeInstallationCache.install(userId, node, EnumSet.of(Tool.LANCE, Tool.DOCKER));
+  }
 
-    installationRequestService
-        .createInstallationRequestAsync(installationRequest, futureResponseCallback);
+  private static void waitFor(ListenableFuture<?> installation) {
     try {
-      futureResponseCallback.get();
+      installation.get();
     } catch (InterruptedException e) {
       throw new IllegalStateException(
           "LanceInstallationStrategy was interrupted during installation request.", e);
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.lance;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.lance.client.LifecycleClient;
+import de.uniulm.omi.cloudiator.lance.lca.container.ComponentInstanceId;
+import de.uniulm.omi.cloudiator.lance.lca.container.ContainerStatus;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import io.github.cloudiator.deployment.config.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the status queries for the same lance agent that arrive within a short window and
+ * answers them using a single {@link LifecycleClient}, i.e. with one RMI connect per node instead
+ * of one per process.
+ */
+@Singleton
+public class LanceProcessStatusBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LanceProcessStatusBatcher.class);
+
+  private final LanceClientConnector lanceClientConnector;
+  private final long batchWindow;
+  private final int connectTimeout;
+  private final LoggingScheduledThreadPoolExecutor executor;
+  private final Map<String, List<PendingQuery>> pending = new HashMap<>();
+
+  @Inject
+  public LanceProcessStatusBatcher(LanceClientConnector lanceClientConnector,
+      @Named(Constants.LANCE_STATUS_PARALLELISM) int parallelism,
+      @Named(Constants.LANCE_STATUS_BATCH_WINDOW) long batchWindow,
+      @Named(Constants.LANCE_STATUS_CONNECT_TIMEOUT) int connectTimeout) {
+    this.lanceClientConnector = lanceClientConnector;
+    this.batchWindow = batchWindow;
+    this.connectTimeout = connectTimeout;
+    this.executor = new LoggingScheduledThreadPoolExecutor(parallelism);
+    MoreExecutors.addDelayedShutdownHook(executor, 1, TimeUnit.MINUTES);
+  }
+
+  private static class PendingQuery {
+
+    private final ComponentInstanceId componentInstanceId;
+    private final BiConsumer<ContainerStatus, Exception> callback;
+
+    private PendingQuery(ComponentInstanceId componentInstanceId,
+        BiConsumer<ContainerStatus, Exception> callback) {
+      this.componentInstanceId = componentInstanceId;
+      this.callback = callback;
+    }
+  }
+
+  /**
+   * Queues a status query for the component on the lance agent with the given ip.
+   *
+   * @param ip the ip of the lance agent
+   * @param componentInstanceId the component to query
+   * @param callback called with either the status or the exception that occurred
+   */
+  public void query(String ip, ComponentInstanceId componentInstanceId,
+      BiConsumer<ContainerStatus, Exception> callback) {
+
+    synchronized (pending) {
+      List<PendingQuery> queries = pending.get(ip);
+      if (queries == null) {
+        queries = new ArrayList<>();
+        pending.put(ip, queries);
+        executor.schedule(() -> flush(ip), batchWindow, TimeUnit.MILLISECONDS);
+      }
+      queries.add(new PendingQuery(componentInstanceId, callback));
+    }
+  }
+
+  private void flush(String ip) {
+
+    final List<PendingQuery> queries;
+    synchronized (pending) {
+      queries = pending.remove(ip);
+    }
+
+    LOGGER.debug(String
+        .format("Querying the status of %s component(s) on lance agent %s.", queries.size(), ip));
+
+    final LifecycleClient lifecycleClient;
+    try {
+      lifecycleClient = lanceClientConnector.getLifecycleClient(ip, connectTimeout, false);
+    } catch (Exception e) {
+      for (PendingQuery query : queries) {
+        complete(query, null, e);
+      }
+      return;
+    }
+
+    for (PendingQuery query : queries) {
+      try {
+        complete(query,
+            lifecycleClient.getComponentContainerStatus(query.componentInstanceId, ip), null);
+      } catch (Exception e) {
+        lanceClientConnector.invalidateOnFailure(ip, e);
+        complete(query, null, e);
+      }
+    }
+  }
+
+  private static void complete(PendingQuery query, @Nullable ContainerStatus containerStatus,
+      @Nullable Exception e) {
+    try {
+      query.callback.accept(containerStatus, e);
+    } catch (Exception callbackException) {
+      LOGGER.error(String
+          .format("Unexpected exception while answering status query for component %s.",
+              query.componentInstanceId), callbackException);
+    }
+  }
+
+}
@@ -17,7 +17,6 @@
 package io.github.cloudiator.deployment.lance;
 
 import com.google.inject.Inject;
-import de.uniulm.omi.cloudiator.lance.client.LifecycleClient;
 import de.uniulm.omi.cloudiator.lance.lca.container.ComponentInstanceId;
 import de.uniulm.omi.cloudiator.lance.lca.container.ContainerStatus;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
@@ -41,17 +40,17 @@ public class LanceProcessStatusSubscriber implements Runnable {
 
   private final ProcessService processService;
   private final MessageInterface messageInterface;
-  private final LanceClientConnector lanceClientConnector;
+  private final LanceProcessStatusBatcher lanceProcessStatusBatcher;
   private static final Logger LOGGER = LoggerFactory.getLogger(LanceProcessStatusSubscriber.class);
 
 
   @Inject
   public LanceProcessStatusSubscriber(
       ProcessService processService, MessageInterface messageInterface,
-      LanceClientConnector lanceClientConnector) {
+      LanceProcessStatusBatcher lanceProcessStatusBatcher) {
     this.processService = processService;
     this.messageInterface = messageInterface;
-    this.lanceClientConnector = lanceClientConnector;
+    this.lanceProcessStatusBatcher = lanceProcessStatusBatcher;
   }
 
   private static ProcessState determineState(ContainerStatus containerStatus) {
@@ -113,28 +112,24 @@ public class LanceProcessStatusSubscriber implements Runnable {
             final Node apply = NodeToNodeMessageConverter.INSTANCE.applyBack(content.getNode());
 
             final String ip = apply.connectTo().ip();
-            try {
-              final LifecycleClient lifecycleClient = lanceClientConnector
-                  .getLifecycleClient(ip, 5000, false);
-
-              final ContainerStatus componentContainerStatus = lifecycleClient
-                  .getComponentContainerStatus(
-                      ComponentInstanceId.fromString(cloudiatorProcess.originId().get()), ip);
-
-              messageInterface.reply(messageId, ProcessStatusResponse.newBuilder()
-                  .setState(determineState(componentContainerStatus)).build());
-
-            } catch (Exception e) {
-              LOGGER.error(String.format(
-                  "Could not retrieve status for lance process %s due to error %s. Replying with error status.",
-                  cloudiatorProcess, e.getMessage()), e);
-              messageInterface.reply(messageId,
-                  ProcessStatusResponse.newBuilder().setState(ProcessState.PROCESS_STATE_ERROR)
-                      .setInformation("Unable to connect to lance agent: " + e.getMessage())
-                      .build());
-            }
-
 
+            lanceProcessStatusBatcher.query(ip,
+                ComponentInstanceId.fromString(cloudiatorProcess.originId().get()),
+                (componentContainerStatus, e) -> {
+                  if (e == null) {
+                    messageInterface.reply(messageId, ProcessStatusResponse.newBuilder()
+                        .setState(determineState(componentContainerStatus)).build());
+                  } else {
+                    LOGGER.error(String.format(
+                        "Could not retrieve status for lance process %s due to error %s. Replying with error status.",
+                        cloudiatorProcess, e.getMessage()), e);
+                    messageInterface.reply(messageId,
+                        ProcessStatusResponse.newBuilder()
+                            .setState(ProcessState.PROCESS_STATE_ERROR)
+                            .setInformation("Unable to connect to lance agent: " + e.getMessage())
+                            .build());
+                  }
+                });
           }
         });
 
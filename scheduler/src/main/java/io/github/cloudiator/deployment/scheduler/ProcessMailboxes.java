@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes work in one mailbox per key: work of the same key is executed one after another in
+ * submission order, work of different keys runs in parallel on the given executor. Mailboxes only
+ * occupy a thread while they contain work.
+ */
+class ProcessMailboxes {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcessMailboxes.class);
+
+  private final Executor executor;
+  private final Map<String, Queue<Runnable>> mailboxes = new HashMap<>();
+  private final ThreadLocal<String> currentKey = new ThreadLocal<>();
+
+  ProcessMailboxes(Executor executor) {
+    this.executor = executor;
+  }
+
+  <T> ListenableFuture<T> submit(String key, Callable<T> work) {
+
+    final ListenableFutureTask<T> task = ListenableFutureTask.create(work);
+
+    final boolean start;
+    synchronized (mailboxes) {
+      final Queue<Runnable> mailbox = mailboxes.get(key);
+      if (mailbox == null) {
+        mailboxes.put(key, new ArrayDeque<>());
+        start = true;
+      } else {
+        mailbox.add(task);
+        start = false;
+      }
+    }
+
+    if (start) {
+      executor.execute(() -> drain(key, task));
+    }
+
+    return task;
+  }
+
+  /**
+   * @return true if the calling thread is currently processing the mailbox of the given key.
+   */
+  boolean isProcessing(String key) {
+    return key.equals(currentKey.get());
+  }
+
+  private void drain(String key, Runnable first) {
+    currentKey.set(key);
+    try {
+      Runnable next = first;
+      while (next != null) {
+        try {
+          next.run();
+        } catch (Exception e) {
+          LOGGER.error(String.format("Unexpected exception in mailbox of %s.", key), e);
+        }
+        synchronized (mailboxes) {
+          next = mailboxes.get(key).poll();
+          if (next == null) {
+            mailboxes.remove(key);
+          }
+        }
+      }
+    } finally {
+      currentKey.remove();
+    }
+  }
+}
@@ -16,9 +16,12 @@
 
 package io.github.cloudiator.deployment.scheduler;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
 import de.uniulm.omi.cloudiator.util.stateMachine.ErrorAwareStateMachine;
 import de.uniulm.omi.cloudiator.util.stateMachine.ErrorTransition;
 import de.uniulm.omi.cloudiator.util.stateMachine.StateMachineBuilder;
@@ -32,17 +35,32 @@ import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.CloudiatorSingleProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorSingleProcessBuilder;
 import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessKiller;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessScheduler;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessSpawningException;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
+import javax.inject.Named;
 import org.cloudiator.messages.Process.ProcessEvent;
 import org.cloudiator.messaging.services.ProcessService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * State machine for processes.
+ * <p>
+ * Every process has its own mailbox: transitions of the same process are executed one after
+ * another, transitions of different processes run in parallel on a bounded pool. The asynchronous
+ * methods return as soon as the transition is enqueued, the synchronous ones wait for it.
+ * <p>
+ * If write-behind is enabled, transitions start from the buffered version of the process and
+ * their result is buffered by the {@link WriteBehindStateStore} instead of being saved directly.
+ */
 @Singleton
 public class ProcessStateMachine implements
     ErrorAwareStateMachine<CloudiatorProcess, ProcessState> {
@@ -52,13 +70,24 @@ public class ProcessStateMachine implements
   private final ProcessDomainRepository processDomainRepository;
   private final ProcessKiller processKiller;
   private final ProcessScheduler processScheduler;
+  private final ProcessMailboxes mailboxes;
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public ProcessStateMachine(ProcessService processService,
       ProcessDomainRepository processDomainRepository,
       ProcessKiller processKiller,
-      ProcessScheduler processScheduler) {
+      ProcessScheduler processScheduler,
+      WriteBehindStateStore stateStore,
+      @Named(SchedulerConstants.PROCESS_TRANSITION_PARALLELISM) int parallelism) {
     this.processDomainRepository = processDomainRepository;
+    this.stateStore = stateStore;
+
+    final LoggingThreadPoolExecutor executor = new LoggingThreadPoolExecutor(parallelism,
+        parallelism, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    executor.allowCoreThreadTimeOut(true);
+    MoreExecutors.addDelayedShutdownHook(executor, 5, TimeUnit.MINUTES);
+    this.mailboxes = new ProcessMailboxes(executor);
 
     //noinspection unchecked
     stateMachine = StateMachineBuilder.<CloudiatorProcess, ProcessState>builder()
@@ -115,6 +144,13 @@ public class ProcessStateMachine implements
     return processDomainRepository.save(process);
   }
 
+  private CloudiatorProcess persist(CloudiatorProcess process) {
+    if (stateStore.isEnabled()) {
+      return stateStore.save(process);
+    }
+    return save(process);
+  }
+
   private static CloudiatorProcess updateProcess(CloudiatorProcess process, ProcessState newState,
       @Nullable String diagnostic) {
     if (process instanceof CloudiatorClusterProcess) {
@@ -156,7 +192,7 @@ public class ProcessStateMachine implements
       try {
         final CloudiatorProcess running = updateProcess(processScheduler.schedule(o),
             ProcessState.RUNNING, null);
-        save(running);
+        persist(running);
         return running;
       } catch (ProcessSpawningException e) {
         throw new ExecutionException("Error while scheduling process.", e);
@@ -175,6 +211,7 @@ public class ProcessStateMachine implements
             .format("Exception while deleting process %s. Still marking process as deleted.", e));
       }
 
+      stateStore.delete(process);
       delete(process);
 
       return updateProcess(process, ProcessState.DELETED, null);
@@ -188,18 +225,60 @@ public class ProcessStateMachine implements
 
           final String message = throwable != null ? throwable.getMessage() : null;
 
-          return save(updateProcess(o, ProcessState.ERROR, message));
+          return persist(updateProcess(o, ProcessState.ERROR, message));
         }).errorState(ProcessState.ERROR).build();
   }
 
 
+  /**
+   * Enqueues the transition of the process to the given state.
+   *
+   * @return a future of the process after the transition
+   */
+  public ListenableFuture<CloudiatorProcess> applyAsync(CloudiatorProcess object, ProcessState to,
+      Object[] arguments) {
+    return mailboxes
+        .submit(object.id(), () -> stateMachine.apply(stateStore.current(object), to, arguments));
+  }
+
+  /**
+   * Enqueues the failure of the process.
+   *
+   * @return a future of the process after it was failed
+   */
+  public ListenableFuture<CloudiatorProcess> failAsync(CloudiatorProcess object,
+      Object[] arguments, Throwable t) {
+    return mailboxes
+        .submit(object.id(), () -> stateMachine.fail(stateStore.current(object), arguments, t));
+  }
+
   @Override
   public CloudiatorProcess apply(CloudiatorProcess object, ProcessState to, Object[] arguments) {
-    return stateMachine.apply(object, to, arguments);
+    if (mailboxes.isProcessing(object.id())) {
+      return stateMachine.apply(stateStore.current(object), to, arguments);
+    }
+    return await(applyAsync(object, to, arguments));
   }
 
   @Override
   public CloudiatorProcess fail(CloudiatorProcess object, Object[] arguments, Throwable t) {
-    return stateMachine.fail(object, arguments, t);
+    if (mailboxes.isProcessing(object.id())) {
+      return stateMachine.fail(stateStore.current(object), arguments, t);
+    }
+    return await(failAsync(object, arguments, t));
+  }
+
+  private static CloudiatorProcess await(ListenableFuture<CloudiatorProcess> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for process transition.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
   }
 }
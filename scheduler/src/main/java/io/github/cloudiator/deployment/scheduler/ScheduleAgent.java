@@ -22,6 +22,7 @@ import com.google.inject.Injector;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
 import io.github.cloudiator.deployment.config.DeploymentContext;
 import io.github.cloudiator.deployment.config.DeploymentModule;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerContext;
 import io.github.cloudiator.deployment.scheduler.config.SchedulerModule;
 import io.github.cloudiator.deployment.scheduler.messaging.DeleteProcessRequestSubscriber;
 import io.github.cloudiator.deployment.scheduler.messaging.DeleteScheduleRequestSubscriber;
@@ -50,7 +51,7 @@ public class ScheduleAgent {
   private final static Injector INJECTOR = Guice
       .createInjector(
           new KafkaMessagingModule(new KafkaContext()), new MessageServiceModule(),
-          new SchedulerModule(), new DeploymentModule(new DeploymentContext()),
+          new SchedulerModule(new SchedulerContext()), new DeploymentModule(new DeploymentContext()),
           new DeploymentJpaModule("defaultPersistenceUnit", new JpaContext(
               Configuration.conf())));
 
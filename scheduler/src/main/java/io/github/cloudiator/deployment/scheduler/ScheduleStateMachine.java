@@ -32,6 +32,7 @@ import io.github.cloudiator.deployment.messaging.ScheduleConverter;
 import io.github.cloudiator.deployment.scheduler.failure.ScheduleRestore;
 import io.github.cloudiator.deployment.scheduler.instantiation.InstantiationException;
 import io.github.cloudiator.deployment.scheduler.instantiation.InstantiationStrategySelector;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.concurrent.ExecutionException;
 import org.cloudiator.messages.Process.ScheduleEvent;
@@ -48,15 +49,18 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final InstantiationStrategySelector instantiationStrategySelector;
   private final ScheduleRestore scheduleRestore;
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public ScheduleStateMachine(
       ScheduleDomainRepository scheduleDomainRepository,
       InstantiationStrategySelector instantiationStrategySelector,
       ProcessService processService,
-      ScheduleRestore scheduleRestore) {
+      ScheduleRestore scheduleRestore,
+      WriteBehindStateStore stateStore) {
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.instantiationStrategySelector = instantiationStrategySelector;
+    this.stateStore = stateStore;
     //noinspection unchecked
     stateMachine = StateMachineBuilder.<Schedule, ScheduleState>builder()
         .errorTransition(error())
@@ -129,10 +133,17 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
     return schedule;
   }
 
+  private Schedule persist(Schedule schedule) {
+    if (stateStore.isEnabled()) {
+      return stateStore.save(schedule);
+    }
+    return save(schedule);
+  }
+
   private ErrorTransition<Schedule, ScheduleState> error() {
 
     return Transitions.<Schedule, ScheduleState>errorTransitionBuilder()
-        .action((o, arguments, throwable) -> save(o.setState(ScheduleState.ERROR)))
+        .action((o, arguments, throwable) -> persist(o.setState(ScheduleState.ERROR)))
         .errorState(ScheduleState.ERROR).build();
   }
 
@@ -146,7 +157,7 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
         }
 
         try {
-          return save(instantiationStrategySelector.get(Instantiation.MANUAL).instantiate(o));
+          return persist(instantiationStrategySelector.get(Instantiation.MANUAL).instantiate(o));
         } catch (InstantiationException e) {
           throw new ExecutionException(
               "Exception while instantiating the schedule: " + e.getMessage(),
@@ -166,7 +177,7 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
         }
 
         try {
-          return save(instantiationStrategySelector.get(Instantiation.AUTOMATIC).instantiate(o));
+          return persist(instantiationStrategySelector.get(Instantiation.AUTOMATIC).instantiate(o));
         } catch (InstantiationException e) {
           throw new ExecutionException(
               "Exception while instantiating the schedule: " + e.getMessage(),
@@ -180,7 +191,7 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
     return new TransitionAction<Schedule>() {
       @Override
       public Schedule apply(Schedule o, Object[] objects) throws ExecutionException {
-        return save(o.setState(ScheduleState.RESTORING));
+        return persist(o.setState(ScheduleState.RESTORING));
       }
     };
   }
@@ -191,7 +202,7 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
       public Schedule apply(Schedule o, Object[] objects) throws ExecutionException {
 
         try {
-          return save(scheduleRestore.heal(o));
+          return persist(scheduleRestore.heal(o));
         } catch (InstantiationException e) {
           throw new ExecutionException("Unexpected error while healing the schedule.", e);
         }
@@ -211,11 +222,11 @@ public class ScheduleStateMachine implements ErrorAwareStateMachine<Schedule, Sc
 
   @Override
   public Schedule fail(Schedule schedule, Object[] objects, Throwable throwable) {
-    return stateMachine.fail(schedule, objects, throwable);
+    return stateMachine.fail(stateStore.current(schedule), objects, throwable);
   }
 
   @Override
   public Schedule apply(Schedule schedule, ScheduleState scheduleState, Object[] objects) {
-    return stateMachine.apply(schedule, scheduleState, objects);
+    return stateMachine.apply(stateStore.current(schedule), scheduleState, objects);
   }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.cloudiator.deployment.scheduler.config;
+
+public class SchedulerConstants {
+
+  public static final String INSTANTIATION_PARALLELISM = "scheduler.instantiation.parallelism";
+  public static final String INSTANTIATION_SCHEDULE_CONCURRENCY = "scheduler.instantiation.scheduleConcurrency";
+  public static final String REQUEST_WORKERS = "scheduler.requests.workers";
+  public static final String REQUEST_CAPACITY = "scheduler.requests.capacity";
+  public static final String WATCHDOG_PARALLELISM = "scheduler.watchdog.parallelism";
+  public static final String WATCHDOG_QUERY_TIMEOUT = "scheduler.watchdog.queryTimeout";
+  public static final String WATCHDOG_SWEEP_TIMEOUT = "scheduler.watchdog.sweepTimeout";
+  public static final String JOB_CACHE_TTL = "scheduler.jobCache.ttl";
+  public static final String JOB_CACHE_MAX_WEIGHT = "scheduler.jobCache.maxWeight";
+  public static final String DELETION_PARALLELISM = "scheduler.deletion.parallelism";
+  public static final String FAILURE_WINDOW = "scheduler.failure.window";
+  public static final String FAILURE_PARALLELISM = "scheduler.failure.parallelism";
+  public static final String PROCESS_TRANSITION_PARALLELISM = "scheduler.process.transitionParallelism";
+  public static final String PROCESS_READINESS_TIMEOUT = "scheduler.process.readinessTimeout";
+  public static final String WRITE_BEHIND_ENABLED = "scheduler.writeBehind.enabled";
+  public static final String WRITE_BEHIND_INTERVAL = "scheduler.writeBehind.interval";
+  public static final String WRITE_BEHIND_DIRECTORY = "scheduler.writeBehind.directory";
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.cloudiator.deployment.scheduler.config;
+
+import com.google.common.base.MoreObjects;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+
+public class SchedulerContext {
+
+  private final Config config;
+
+  public SchedulerContext() {
+    this(Configuration.conf());
+  }
+
+  public SchedulerContext(Config config) {
+    this.config = config;
+    config.checkValid(ConfigFactory.defaultReference(), "scheduler");
+  }
+
+  /**
+   * @return the number of threads used to chain process creation onto allocated nodes.
+   */
+  public int instantiationParallelism() {
+    return config.getInt(SchedulerConstants.INSTANTIATION_PARALLELISM);
+  }
+
+  /**
+   * @return the maximum number of process creation requests in flight for a single schedule.
+   */
+  public int instantiationScheduleConcurrency() {
+    return config.getInt(SchedulerConstants.INSTANTIATION_SCHEDULE_CONCURRENCY);
+  }
+
+  /**
+   * @return the number of workers (and shards) consuming each request queue.
+   */
+  public int requestWorkers() {
+    return config.getInt(SchedulerConstants.REQUEST_WORKERS);
+  }
+
+  /**
+   * @return the number of queued requests after which new requests are rejected.
+   */
+  public int requestCapacity() {
+    return config.getInt(SchedulerConstants.REQUEST_CAPACITY);
+  }
+
+  /**
+   * @return the number of nodes the process watchdog queries concurrently.
+   */
+  public int watchdogParallelism() {
+    return config.getInt(SchedulerConstants.WATCHDOG_PARALLELISM);
+  }
+
+  /**
+   * @return the timeout of a single process status query of the watchdog in milliseconds.
+   */
+  public long watchdogQueryTimeout() {
+    return config.getLong(SchedulerConstants.WATCHDOG_QUERY_TIMEOUT);
+  }
+
+  /**
+   * @return the maximum duration of a single watchdog run in milliseconds.
+   */
+  public long watchdogSweepTimeout() {
+    return config.getLong(SchedulerConstants.WATCHDOG_SWEEP_TIMEOUT);
+  }
+
+  /**
+   * @return the time in seconds a job stays in the job cache after it was retrieved.
+   */
+  public long jobCacheTtl() {
+    return config.getLong(SchedulerConstants.JOB_CACHE_TTL);
+  }
+
+  /**
+   * @return the maximum number of tasks (summed over all jobs) held by the job cache.
+   */
+  public long jobCacheMaxWeight() {
+    return config.getLong(SchedulerConstants.JOB_CACHE_MAX_WEIGHT);
+  }
+
+  /**
+   * @return the maximum number of process or node deletions in flight while deleting a schedule.
+   */
+  public int deletionParallelism() {
+    return config.getInt(SchedulerConstants.DELETION_PARALLELISM);
+  }
+
+  /**
+   * @return the time in milliseconds process failures of one schedule are collected before they
+   * are handled together.
+   */
+  public long failureWindow() {
+    return config.getLong(SchedulerConstants.FAILURE_WINDOW);
+  }
+
+  /**
+   * @return the number of failure batches of different schedules handled concurrently.
+   */
+  public int failureParallelism() {
+    return config.getInt(SchedulerConstants.FAILURE_PARALLELISM);
+  }
+
+  /**
+   * @return the number of processes whose state transitions are executed concurrently.
+   */
+  public int processTransitionParallelism() {
+    return config.getInt(SchedulerConstants.PROCESS_TRANSITION_PARALLELISM);
+  }
+
+  /**
+   * @return the time in milliseconds a process waits for its nodes to become ready.
+   */
+  public long processReadinessTimeout() {
+    return config.getLong(SchedulerConstants.PROCESS_READINESS_TIMEOUT);
+  }
+
+  /**
+   * @return true if state changes of processes and schedules are journaled locally and written
+   * to the database in batches.
+   */
+  public boolean writeBehindEnabled() {
+    return config.getBoolean(SchedulerConstants.WRITE_BEHIND_ENABLED);
+  }
+
+  /**
+   * @return the time in milliseconds between two writes of the buffered state changes.
+   */
+  public long writeBehindInterval() {
+    return config.getLong(SchedulerConstants.WRITE_BEHIND_INTERVAL);
+  }
+
+  /**
+   * @return the directory of the local journal of the buffered state changes.
+   */
+  public String writeBehindDirectory() {
+    return config.getString(SchedulerConstants.WRITE_BEHIND_DIRECTORY);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("config", config).toString();
+  }
+
+}
@@ -16,14 +16,20 @@
 
 package io.github.cloudiator.deployment.scheduler.config;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.AbstractModule;
+import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import de.uniulm.omi.cloudiator.util.execution.ExecutionService;
 import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
 import de.uniulm.omi.cloudiator.util.execution.Schedulable;
 import de.uniulm.omi.cloudiator.util.execution.ScheduledThreadPoolExecutorExecutionService;
+import io.github.cloudiator.deployment.domain.Job;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.scheduler.Init;
 import io.github.cloudiator.deployment.scheduler.failure.FailureHandler;
 import io.github.cloudiator.deployment.scheduler.failure.NodeFailureReportingInterface;
@@ -36,6 +42,10 @@ import io.github.cloudiator.deployment.scheduler.instantiation.ManualInstantiati
 import io.github.cloudiator.deployment.scheduler.instantiation.OnDemandResourcePool;
 import io.github.cloudiator.deployment.scheduler.instantiation.PeriodicBehaviourSchedulableFactory;
 import io.github.cloudiator.deployment.scheduler.instantiation.ResourcePool;
+import io.github.cloudiator.deployment.scheduler.messaging.CachingJobMessageRepository;
+import io.github.cloudiator.deployment.scheduler.messaging.CachingNodeMessageRepository;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.deployment.scheduler.processes.CompositeProcessKiller;
 import io.github.cloudiator.deployment.scheduler.processes.CompositeProcessSpawnerImpl;
 import io.github.cloudiator.deployment.scheduler.processes.FaasProcessSpawnerImpl;
@@ -50,10 +60,17 @@ import io.github.cloudiator.deployment.scheduler.processes.SimulationProcessKill
 import io.github.cloudiator.deployment.scheduler.processes.SimulationProcessSpawner;
 import io.github.cloudiator.deployment.scheduler.processes.SparkProcessKillerImpl;
 import io.github.cloudiator.deployment.scheduler.processes.SparkProcessSpawnerImpl;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 public class SchedulerModule extends AbstractModule {
 
+  private final SchedulerContext schedulerContext;
+
+  public SchedulerModule(SchedulerContext schedulerContext) {
+    this.schedulerContext = schedulerContext;
+  }
+
   @Override
   protected void configure() {
     bind(ResourcePool.class).to(OnDemandResourcePool.class);
@@ -63,11 +80,19 @@ public class SchedulerModule extends AbstractModule {
     bind(ProcessFailureReportingInterface.class).to(FailureHandler.class);
     bind(ScheduleEventReportingInterface.class).to(FailureHandler.class);
 
+    bind(new TypeLiteral<MessageRepository<Job>>() {
+    }).to(CachingJobMessageRepository.class);
+    bind(NodeRepository.class).to(CachingNodeMessageRepository.class);
+
     install(new FactoryModuleBuilder().build(PeriodicBehaviourSchedulableFactory.class));
 
     Multibinder<Schedulable> schedulableMultibinder = Multibinder
         .newSetBinder(binder(), Schedulable.class);
     schedulableMultibinder.addBinding().to(ProcessWatchdog.class);
+    schedulableMultibinder.addBinding().to(CachingJobMessageRepository.class);
+    if (schedulerContext.writeBehindEnabled()) {
+      schedulableMultibinder.addBinding().to(WriteBehindStateStore.class);
+    }
 
     final ScheduledThreadPoolExecutorExecutionService scheduledThreadPoolExecutorExecutionService = new ScheduledThreadPoolExecutorExecutionService(
         new LoggingScheduledThreadPoolExecutor(5));
@@ -77,6 +102,59 @@ public class SchedulerModule extends AbstractModule {
     bind(ExecutionService.class).annotatedWith(Names.named("SchedulableExecution"))
         .toInstance(scheduledThreadPoolExecutorExecutionService);
 
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.INSTANTIATION_SCHEDULE_CONCURRENCY))
+        .to(schedulerContext.instantiationScheduleConcurrency());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.REQUEST_WORKERS))
+        .to(schedulerContext.requestWorkers());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.REQUEST_CAPACITY))
+        .to(schedulerContext.requestCapacity());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WATCHDOG_PARALLELISM))
+        .to(schedulerContext.watchdogParallelism());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WATCHDOG_QUERY_TIMEOUT))
+        .to(schedulerContext.watchdogQueryTimeout());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WATCHDOG_SWEEP_TIMEOUT))
+        .to(schedulerContext.watchdogSweepTimeout());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.JOB_CACHE_TTL))
+        .to(schedulerContext.jobCacheTtl());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.JOB_CACHE_MAX_WEIGHT))
+        .to(schedulerContext.jobCacheMaxWeight());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.DELETION_PARALLELISM))
+        .to(schedulerContext.deletionParallelism());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.FAILURE_WINDOW))
+        .to(schedulerContext.failureWindow());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.FAILURE_PARALLELISM))
+        .to(schedulerContext.failureParallelism());
+
+    bindConstant()
+        .annotatedWith(Names.named(SchedulerConstants.PROCESS_TRANSITION_PARALLELISM))
+        .to(schedulerContext.processTransitionParallelism());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.PROCESS_READINESS_TIMEOUT))
+        .to(schedulerContext.processReadinessTimeout());
+
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WRITE_BEHIND_ENABLED))
+        .to(schedulerContext.writeBehindEnabled());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WRITE_BEHIND_INTERVAL))
+        .to(schedulerContext.writeBehindInterval());
+    bindConstant().annotatedWith(Names.named(SchedulerConstants.WRITE_BEHIND_DIRECTORY))
+        .to(schedulerContext.writeBehindDirectory());
+
+    //bounded pool, node callbacks only chain work and never block on it
+    final LoggingThreadPoolExecutor instantiationExecutor = new LoggingThreadPoolExecutor(
+        schedulerContext.instantiationParallelism(), schedulerContext.instantiationParallelism(),
+        60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    instantiationExecutor.allowCoreThreadTimeOut(true);
+    MoreExecutors.addDelayedShutdownHook(instantiationExecutor, 5, TimeUnit.MINUTES);
+
+    bind(ListeningExecutorService.class).annotatedWith(Names.named("InstantiationExecution"))
+        .toInstance(MoreExecutors.listeningDecorator(instantiationExecutor));
+
     Multibinder<InstantiationStrategy> instantiationStrategyMultibinder = Multibinder
         .newSetBinder(binder(), InstantiationStrategy.class);
     instantiationStrategyMultibinder.addBinding().to(AutomaticInstantiationStrategy.class);
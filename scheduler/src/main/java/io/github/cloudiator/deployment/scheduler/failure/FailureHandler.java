@@ -3,9 +3,12 @@ package io.github.cloudiator.deployment.scheduler.failure;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.Job;
@@ -14,17 +17,33 @@ import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
 import io.github.cloudiator.deployment.domain.Task;
 import io.github.cloudiator.deployment.domain.TaskInterface;
 import io.github.cloudiator.deployment.graph.Graphs;
-import io.github.cloudiator.deployment.graph.ScheduleGraph;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.graph.ProcessDependencies;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.scheduler.ProcessStateMachine;
 import io.github.cloudiator.deployment.scheduler.ScheduleStateMachine;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
-import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import javax.inject.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reacts on failures of processes and nodes and triggers the restore of failed schedules.
+ * <p>
+ * Process failures are not handled one by one. Failures of the same schedule are collected for
+ * the configured window and then handled together: the affected processes are determined once and
+ * the schedule is failed at most once. Batches of different schedules are handled in parallel,
+ * batches of the same schedule one after another.
+ */
 @Singleton
 public class FailureHandler implements NodeFailureReportingInterface,
     ProcessFailureReportingInterface, ScheduleEventReportingInterface {
@@ -34,22 +53,32 @@ public class FailureHandler implements NodeFailureReportingInterface,
 
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final ScheduleStateMachine scheduleStateMachine;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final NodeMessageRepository nodeMessageRepository;
   private final ProcessStateMachine processStateMachine;
+  private final long failureWindow;
+  private final LoggingScheduledThreadPoolExecutor executor;
+  //failures waiting to be handled, by schedule
+  private final Map<String, Set<CloudiatorProcess>> pendingFailures = new HashMap<>();
+  private final Striped<Lock> scheduleLocks = Striped.lock(64);
 
   @Inject
   public FailureHandler(
       ScheduleDomainRepository scheduleDomainRepository,
       ScheduleStateMachine scheduleStateMachine,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       NodeMessageRepository nodeMessageRepository,
-      ProcessStateMachine processStateMachine) {
+      ProcessStateMachine processStateMachine,
+      @Named(SchedulerConstants.FAILURE_WINDOW) long failureWindow,
+      @Named(SchedulerConstants.FAILURE_PARALLELISM) int failureParallelism) {
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.scheduleStateMachine = scheduleStateMachine;
     this.jobMessageRepository = jobMessageRepository;
     this.nodeMessageRepository = nodeMessageRepository;
     this.processStateMachine = processStateMachine;
+    this.failureWindow = failureWindow;
+    this.executor = new LoggingScheduledThreadPoolExecutor(failureParallelism);
+    MoreExecutors.addDelayedShutdownHook(executor, 1, TimeUnit.MINUTES);
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -76,45 +105,93 @@ public class FailureHandler implements NodeFailureReportingInterface,
   }
 
   @Override
-  public synchronized void addProcessFailure(CloudiatorProcess cloudiatorProcess) {
+  public void addProcessFailure(CloudiatorProcess cloudiatorProcess) {
     LOGGER.warn(String.format("Registering failure of process %s", cloudiatorProcess));
 
-    final Schedule schedule = findSchedule(cloudiatorProcess.scheduleId(),
-        cloudiatorProcess.userId());
+    final String key = cloudiatorProcess.userId() + ":" + cloudiatorProcess.scheduleId();
 
-    checkNotNull(schedule, String
-        .format("Process %s failed, but schedule with id %s does not exist.", cloudiatorProcess,
-            cloudiatorProcess.scheduleId()));
+    final boolean newBatch;
+    synchronized (pendingFailures) {
+      newBatch = !pendingFailures.containsKey(key);
+      pendingFailures.computeIfAbsent(key, k -> new HashSet<>()).add(cloudiatorProcess);
+    }
+
+    if (newBatch) {
+      executor.schedule(() -> handleProcessFailures(key, cloudiatorProcess.scheduleId(),
+          cloudiatorProcess.userId()), failureWindow, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void handleProcessFailures(String key, String scheduleId, String userId) {
+
+    final Lock lock = scheduleLocks.get(key);
+    lock.lock();
+    try {
 
-    handleAffectedProcesses(schedule, findJob(schedule), cloudiatorProcess);
+      final Set<CloudiatorProcess> failedProcesses;
+      synchronized (pendingFailures) {
+        failedProcesses = pendingFailures.remove(key);
+      }
 
-    //if the schedule is not in state running ignore it
-    if (schedule.state().equals(ScheduleState.RUNNING)) {
-      //wait for multiple processes to fail?
-      scheduleStateMachine.fail(schedule, null,
-          new IllegalStateException(String.format("Process %s failed.", cloudiatorProcess)));
-    } else {
       LOGGER.warn(String
-          .format("Process %s failed. Ignoring it as schedule is in state %s", cloudiatorProcess,
-              schedule.state()));
+          .format("Handling failure of %s process(es) of schedule %s.", failedProcesses.size(),
+              scheduleId));
+
+      final Schedule schedule = findSchedule(scheduleId, userId);
+
+      checkNotNull(schedule, String
+          .format("Processes %s failed, but schedule with id %s does not exist.", failedProcesses,
+              scheduleId));
+
+      handleAffectedProcesses(schedule, findJob(schedule), failedProcesses);
+
+      //if the schedule is not in state running ignore it
+      if (schedule.state().equals(ScheduleState.RUNNING)) {
+        scheduleStateMachine.fail(schedule, null,
+            new IllegalStateException(String.format("Processes %s failed.",
+                failedProcesses.stream().map(CloudiatorProcess::id)
+                    .collect(Collectors.toList()))));
+      } else {
+        LOGGER.warn(String
+            .format("Processes %s failed. Ignoring it as schedule is in state %s",
+                failedProcesses, schedule.state()));
+      }
+
+    } catch (Exception e) {
+      LOGGER.error(String
+          .format("Unexpected exception while handling process failures of schedule %s.",
+              scheduleId), e);
+    } finally {
+      lock.unlock();
     }
   }
 
   private void handleAffectedProcesses(Schedule schedule, Job job,
-      CloudiatorProcess cloudiatorProcess) {
+      Set<CloudiatorProcess> failedProcesses) {
 
-    final ScheduleGraph scheduleGraph = Graphs.scheduleGraph(schedule, job);
+    final ProcessDependencies processDependencies = Graphs.processDependencies(schedule, job);
+    final Set<String> failedIds = failedProcesses.stream().map(CloudiatorProcess::id)
+        .collect(Collectors.toSet());
+    final Set<String> handled = new HashSet<>();
 
-    final List<CloudiatorProcess> dependentProcesses = scheduleGraph
-        .getDependentProcesses(cloudiatorProcess);
+    for (CloudiatorProcess cloudiatorProcess : failedProcesses) {
+      for (CloudiatorProcess dependentProcess : processDependencies
+          .dependents(cloudiatorProcess)) {
 
-    for (CloudiatorProcess dependentProcess : dependentProcesses) {
-      Task task = schedule.getTask(dependentProcess, job);
-      final TaskInterface taskInterface = task.interfaceOfName(cloudiatorProcess.taskInterface());
+        //already failed or failed because of another process of this batch
+        if (failedIds.contains(dependentProcess.id()) || handled.contains(dependentProcess.id())) {
+          continue;
+        }
+
+        Task task = schedule.getTask(dependentProcess, job);
+        final TaskInterface taskInterface = task
+            .interfaceOfName(dependentProcess.taskInterface());
 
-      if (taskInterface.isStaticallyConfigured()) {
-        processStateMachine.fail(dependentProcess, null, new IllegalStateException(
-            String.format("Failure as dependency process %s has failed.", cloudiatorProcess)));
+        if (taskInterface.isStaticallyConfigured()) {
+          handled.add(dependentProcess.id());
+          processStateMachine.failAsync(dependentProcess, null, new IllegalStateException(
+              String.format("Failure as dependency process %s has failed.", cloudiatorProcess)));
+        }
       }
     }
   }
@@ -18,11 +18,13 @@ package io.github.cloudiator.deployment.scheduler.failure;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
-import de.uniulm.omi.cloudiator.util.CloudiatorFutures;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.Job;
@@ -31,7 +33,9 @@ import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
 import io.github.cloudiator.deployment.domain.Task;
 import io.github.cloudiator.deployment.domain.TaskInterface;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.graph.Graphs;
+import io.github.cloudiator.deployment.graph.ProcessDependencies;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.scheduler.exceptions.MatchmakingException;
 import io.github.cloudiator.deployment.scheduler.instantiation.DependencyGraph;
 import io.github.cloudiator.deployment.scheduler.instantiation.InstantiationException;
@@ -39,9 +43,10 @@ import io.github.cloudiator.deployment.scheduler.instantiation.InstantiationStra
 import io.github.cloudiator.deployment.scheduler.instantiation.MatchmakingEngine;
 import io.github.cloudiator.deployment.scheduler.instantiation.ResourcePool;
 import io.github.cloudiator.deployment.scheduler.instantiation.TaskInterfaceSelection;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.domain.NodeCandidate;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.Collection;
 import java.util.HashSet;
@@ -52,8 +57,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import javax.inject.Named;
 import org.cloudiator.messages.Node.NodeDeleteMessage;
 import org.cloudiator.messages.Node.NodeDeleteResponseMessage;
 import org.cloudiator.messages.Process.DeleteProcessRequest;
@@ -64,28 +70,40 @@ import org.cloudiator.messaging.services.ProcessService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Restores a failed schedule.
+ * <p>
+ * Only tasks affected by the failure are restored, i.e. tasks with failed processes and tasks
+ * with processes statically configured against a failed process. Matchmaking for the affected
+ * tasks runs in parallel and the failed processes and their nodes are cleaned up while the
+ * replacements are deployed. All other tasks are left untouched.
+ */
 public class ScheduleRestore {
 
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ScheduleRestore.class);
 
   private final ResourcePool resourcePool;
-  private final JobMessageRepository jobMessageRepository;
-  private final NodeMessageRepository nodeMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
+  private final NodeRepository nodeMessageRepository;
   private final InstantiationStrategySelector instantiationStrategySelector;
   private final ProcessService processService;
   private final NodeService nodeService;
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final MatchmakingEngine matchmakingEngine;
+  private final ListeningExecutorService executor;
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public ScheduleRestore(ResourcePool resourcePool,
-      JobMessageRepository jobMessageRepository,
-      NodeMessageRepository nodeMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
+      NodeRepository nodeMessageRepository,
       InstantiationStrategySelector instantiationStrategySelector,
       ProcessService processService, NodeService nodeService,
       ScheduleDomainRepository scheduleDomainRepository,
-      MatchmakingEngine matchmakingEngine) {
+      MatchmakingEngine matchmakingEngine,
+      @Named("InstantiationExecution") ListeningExecutorService executor,
+      WriteBehindStateStore stateStore) {
     this.resourcePool = resourcePool;
     this.jobMessageRepository = jobMessageRepository;
     this.nodeMessageRepository = nodeMessageRepository;
@@ -94,6 +112,8 @@ public class ScheduleRestore {
     this.nodeService = nodeService;
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.matchmakingEngine = matchmakingEngine;
+    this.executor = executor;
+    this.stateStore = stateStore;
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -130,76 +150,144 @@ public class ScheduleRestore {
     return true;
   }
 
+  /**
+   * Computes the processes that need to be replaced: all failed processes and all processes
+   * statically configured against one of them.
+   */
+  private Set<CloudiatorProcess> processesToRestore(Job job, Schedule schedule) {
+
+    final Set<CloudiatorProcess> failed = schedule.processes().stream()
+        .filter(process -> requiresRestore(job, schedule, process)).collect(Collectors.toSet());
+
+    final ProcessDependencies processDependencies = Graphs.processDependencies(schedule, job);
+    final Set<CloudiatorProcess> toRestore = new HashSet<>(failed);
+    for (CloudiatorProcess cloudiatorProcess : failed) {
+      for (CloudiatorProcess dependent : processDependencies.dependents(cloudiatorProcess)) {
+        final Task task = schedule.getTask(dependent, job);
+        if (!(task.behaviour() instanceof PeriodicBehaviour) && task
+            .interfaceOfName(dependent.taskInterface()).isStaticallyConfigured()) {
+          toRestore.add(dependent);
+        }
+      }
+    }
+    return toRestore;
+  }
+
   public Schedule heal(Schedule schedule) throws InstantiationException {
 
+    final Stopwatch stopwatch = Stopwatch.createStarted();
     final Job job = findJobForSchedule(schedule);
 
-    Set<CloudiatorProcess> processToBeCleaned = new HashSet<>();
-    Set<Node> nodesToBeCleaned = new HashSet<>();
-    List<Future<Collection<CloudiatorProcess>>> futures = new LinkedList<>();
+    final Set<CloudiatorProcess> processToBeCleaned = processesToRestore(job, schedule);
+    final Set<String> affectedTasks = processToBeCleaned.stream().map(CloudiatorProcess::taskId)
+        .collect(Collectors.toSet());
+
+    //resolve all nodes of the schedule at once
+    final Map<String, Node> nodes = nodeMessageRepository
+        .getByIds(schedule.userId(), schedule.nodes());
+
+    final Set<Node> nodesToBeCleaned = new HashSet<>();
+    for (CloudiatorProcess process : processToBeCleaned) {
+      nodesToBeCleaned.addAll(getNodes(process, nodes));
+    }
+    //nodes still hosting processes that are not restored are kept, they may also be reused
+    final Set<String> keptNodeIds = new HashSet<>();
+    for (CloudiatorProcess process : schedule.processes()) {
+      if (!processToBeCleaned.contains(process)) {
+        keptNodeIds.addAll(process.nodes());
+      }
+    }
+    nodesToBeCleaned.removeIf(node -> keptNodeIds.contains(node.id()));
+
+    LOGGER.info(String.format(
+        "Restoring %s process(es) of %s affected task(s) %s of schedule %s. %s task(s) are unaffected.",
+        processToBeCleaned.size(), affectedTasks.size(), affectedTasks, schedule,
+        job.tasks().size() - affectedTasks.size()));
 
     final Map<Task, TaskInterface> taskInterfaceSelection = new TaskInterfaceSelection()
         .select(job);
     final DependencyGraph dependencyGraph = DependencyGraph.of(job, taskInterfaceSelection);
 
+    //unaffected tasks are already deployed
     for (Task task : job.tasks()) {
+      if (!affectedTasks.contains(task.name())) {
+        dependencyGraph.forTask(task).fulfill();
+      }
+    }
 
-      Set<Node> reusableNodes = new LinkedHashSet<>();
+    //start the cleanup of the failed processes, overlapping with their replacement
+    final ListenableFuture<?> cleanup = cleanup(processToBeCleaned, nodesToBeCleaned);
 
-      for (CloudiatorProcess process : processesPerTask(schedule, task)) {
+    List<ListenableFuture<Collection<CloudiatorProcess>>> futures = new LinkedList<>();
+    for (Task task : job.tasks()) {
 
-        if (requiresRestore(job, schedule, process)) {
-          processToBeCleaned.add(process);
-          nodesToBeCleaned.addAll(getNodes(process));
-        } else {
-          reusableNodes.addAll(getNodes(process));
-        }
+      if (!affectedTasks.contains(task.name())) {
+        continue;
       }
 
-      final List<NodeCandidate> matchmaking;
-      try {
-        matchmaking = matchmakingEngine
-            .matchmaking(task.requirements(job), reusableNodes, null, schedule.userId());
-      } catch (MatchmakingException e) {
-        throw new InstantiationException("Matchmaking failed.", e);
+      Set<Node> reusableNodes = new LinkedHashSet<>();
+      for (CloudiatorProcess process : schedule.processesForTask(task)) {
+        if (!processToBeCleaned.contains(process)) {
+          reusableNodes.addAll(getNodes(process, nodes));
+        }
       }
 
-      final List<ListenableFuture<Node>> allocate = resourcePool
-          .allocate(schedule, matchmaking, reusableNodes, task.name());
+      final ListenableFuture<List<NodeCandidate>> matchmaking = executor.submit(() -> {
+        try {
+          return matchmakingEngine
+              .matchmaking(task.requirements(job), reusableNodes, null, schedule.userId());
+        } catch (MatchmakingException e) {
+          throw new InstantiationException("Matchmaking failed.", e);
+        }
+      });
 
-      final Future<Collection<CloudiatorProcess>> collectionFuture = instantiationStrategySelector
-          .get(schedule.instantiation())
-          .deployTask(task, taskInterfaceSelection.get(task), schedule, allocate,
-              dependencyGraph.forTask(task));
-      futures.add(collectionFuture);
+      futures.add(Futures.transformAsync(matchmaking, nodeCandidates -> {
+        final List<ListenableFuture<Node>> allocate = resourcePool
+            .allocate(schedule, nodeCandidates, reusableNodes, task.name());
 
+        return instantiationStrategySelector
+            .get(schedule.instantiation())
+            .deployTask(task, taskInterfaceSelection.get(task), schedule, allocate,
+                dependencyGraph.forTask(task));
+      }, MoreExecutors.directExecutor()));
     }
 
     try {
-      CloudiatorFutures.waitForFutures(futures);
+      Futures.allAsList(futures).get();
     } catch (ExecutionException | InterruptedException e) {
       throw new InstantiationException("Instantiation failed.", e);
     } finally {
-      cleanup(processToBeCleaned, nodesToBeCleaned);
+      awaitCleanup(cleanup);
     }
 
+    LOGGER.info(String
+        .format("Restored %s affected task(s) of schedule %s in %s ms.", affectedTasks.size(),
+            schedule, stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+
+    //the restored processes may still be buffered
+    stateStore.flush();
     return Objects
         .requireNonNull(findByIdAndUser(schedule.id(), schedule.userId()))
         .setState(
             ScheduleState.RUNNING);
   }
 
-  private void cleanup(Set<CloudiatorProcess> processes, Set<Node> nodes) {
+  private ListenableFuture<List<NodeDeleteResponseMessage>> cleanup(
+      Set<CloudiatorProcess> processes, Set<Node> nodes) {
+    return Futures
+        .transformAsync(deleteProcesses(processes), deleted -> deleteNodes(nodes),
+            MoreExecutors.directExecutor());
+  }
 
+  private void awaitCleanup(ListenableFuture<?> cleanup) {
     try {
-      deleteProcesses(processes).get();
-      deleteNodes(nodes).get();
+      cleanup.get();
     } catch (InterruptedException | ExecutionException e) {
-      throw new IllegalStateException("Unexpected exception during cleanup process");
+      throw new IllegalStateException("Unexpected exception during cleanup process", e);
     }
   }
 
-  private ListenableFuture<?> deleteProcesses(Set<CloudiatorProcess> processes) {
+  private ListenableFuture<List<ProcessDeletedResponse>> deleteProcesses(Set<CloudiatorProcess> processes) {
 
     List<ListenableFuture<ProcessDeletedResponse>> futures = new LinkedList<>();
 
@@ -223,7 +311,7 @@ public class ScheduleRestore {
 
   }
 
-  private ListenableFuture<?> deleteNodes(Set<Node> nodes) {
+  private ListenableFuture<List<NodeDeleteResponseMessage>> deleteNodes(Set<Node> nodes) {
 
     List<ListenableFuture<NodeDeleteResponseMessage>> futures = new LinkedList<>();
 
@@ -247,19 +335,12 @@ public class ScheduleRestore {
 
   }
 
-  private Set<CloudiatorProcess> processesPerTask(Schedule schedule, Task task) {
-
-    return schedule.processes().stream().filter(
-        cloudiatorProcess -> cloudiatorProcess.taskId().equals(task.name()))
-        .collect(Collectors.toSet());
-  }
-
-  private Set<Node> getNodes(CloudiatorProcess cloudiatorProcess) {
+  private Set<Node> getNodes(CloudiatorProcess cloudiatorProcess, Map<String, Node> byId) {
 
     Set<Node> nodes = new HashSet<>(cloudiatorProcess.nodes().size());
     for (String nodeId : cloudiatorProcess.nodes()) {
 
-      final Node node = nodeMessageRepository.getById(cloudiatorProcess.userId(), nodeId);
+      final Node node = byId.get(nodeId);
 
       checkState(node != null, String
           .format("Node %s referenced by process %s does not exist.", nodeId, cloudiatorProcess));
@@ -19,15 +19,16 @@ package io.github.cloudiator.deployment.scheduler.instantiation;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import de.uniulm.omi.cloudiator.domain.Identifiable;
 import de.uniulm.omi.cloudiator.util.CloudiatorFutures;
-import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.PeriodicBehaviour;
@@ -37,7 +38,7 @@ import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
 import io.github.cloudiator.deployment.domain.ServiceBehaviour;
 import io.github.cloudiator.deployment.domain.Task;
 import io.github.cloudiator.deployment.domain.TaskInterface;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
 import io.github.cloudiator.deployment.scheduler.exceptions.MatchmakingException;
 import io.github.cloudiator.deployment.scheduler.instantiation.DependencyGraph.Dependencies;
@@ -47,19 +48,16 @@ import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.inject.Named;
 import org.cloudiator.messages.Process.CreateProcessRequest;
 import org.cloudiator.messages.Process.ProcessCreatedResponse;
 import org.cloudiator.messages.entities.ProcessEntities.NodeCluster;
@@ -73,33 +71,32 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
 
   private static final Logger LOGGER = LoggerFactory
       .getLogger(AutomaticInstantiationStrategy.class);
-  private static final ExecutorService EXECUTOR = new LoggingThreadPoolExecutor(0,
-      2147483647, 60L, TimeUnit.SECONDS, new SynchronousQueue());
   private final MatchmakingEngine matchmakingEngine;
-
-  static {
-    MoreExecutors.addDelayedShutdownHook(EXECUTOR, 5, TimeUnit.MINUTES);
-  }
-
   private final ResourcePool resourcePool;
   private final ProcessService processService;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final PeriodicScheduler periodicScheduler;
+  private final ListeningExecutorService executor;
+  private final ScheduleConcurrencyLimiter scheduleConcurrencyLimiter;
 
   @Inject
   public AutomaticInstantiationStrategy(
       MatchmakingEngine matchmakingEngine,
       ResourcePool resourcePool, ProcessService processService,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       ScheduleDomainRepository scheduleDomainRepository,
-      PeriodicScheduler periodicScheduler) {
+      PeriodicScheduler periodicScheduler,
+      @Named("InstantiationExecution") ListeningExecutorService executor,
+      ScheduleConcurrencyLimiter scheduleConcurrencyLimiter) {
     this.matchmakingEngine = matchmakingEngine;
     this.resourcePool = resourcePool;
     this.processService = processService;
     this.jobMessageRepository = jobMessageRepository;
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.periodicScheduler = periodicScheduler;
+    this.executor = executor;
+    this.scheduleConcurrencyLimiter = scheduleConcurrencyLimiter;
   }
 
   private ListenableFuture<CloudiatorProcess> submitProcess(Schedule schedule,
@@ -118,55 +115,35 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
   }
 
 
-  private abstract class NodeCallback<T> implements FutureCallback<T> {
+  /**
+   * Submits the process for the allocated node(s) once the dependencies of the task are
+   * fulfilled. Neither waiting for the dependencies nor for the process creation blocks a thread,
+   * both are chained onto the respective futures.
+   */
+  private abstract class NodeCallback<T> implements AsyncFunction<T, CloudiatorProcess> {
 
     private final Schedule schedule;
     private final Task task;
     private final TaskInterface taskInterface;
-    private final Runnable beforeExecute;
-    private final Runnable afterExecute;
-    private final Consumer<CloudiatorProcess> onSuccess;
+    private final Dependencies dependencies;
 
     protected NodeCallback(Schedule schedule, Task task,
-        TaskInterface taskInterface, Runnable beforeExecute, Runnable afterExecute,
-        Consumer<CloudiatorProcess> onSuccess) {
+        TaskInterface taskInterface, Dependencies dependencies) {
       this.schedule = schedule;
       this.task = task;
       this.taskInterface = taskInterface;
-      this.beforeExecute = beforeExecute;
-      this.afterExecute = afterExecute;
-      this.onSuccess = onSuccess;
-    }
-
-    @Override
-    public final void onSuccess(T result) {
-      try {
-        beforeExecute.run();
-        final CloudiatorProcess cloudiatorProcess = doSuccess(result).get();
-        onSuccess.accept(cloudiatorProcess);
-      } catch (InterruptedException e) {
-        throw new IllegalStateException("Interrupted while waiting for result.", e);
-      } catch (ExecutionException e) {
-        throw new IllegalStateException("Unexpected exception while waiting for result",
-            e.getCause());
-      } finally {
-        afterExecute.run();
-      }
+      this.dependencies = dependencies;
     }
 
     @Override
-    public final void onFailure(Throwable t) {
-      try {
-        beforeExecute.run();
-        doFailure(t);
-      } finally {
-        afterExecute.run();
-      }
+    public final ListenableFuture<CloudiatorProcess> apply(@Nullable T result) {
+      return Futures.transformAsync(dependencies.ready(),
+          fulfilled -> scheduleConcurrencyLimiter
+              .submit(schedule.id(), () -> doSuccess(result)),
+          MoreExecutors.directExecutor());
     }
 
-    public abstract Future<CloudiatorProcess> doSuccess(@Nullable T result);
-
-    public abstract void doFailure(Throwable t);
+    public abstract ListenableFuture<CloudiatorProcess> doSuccess(@Nullable T result);
 
     public Schedule schedule() {
       return schedule;
@@ -184,13 +161,12 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
   private class SingleNodeCallback extends NodeCallback<Node> {
 
     private SingleNodeCallback(Schedule schedule, Task task,
-        TaskInterface taskInterface, Runnable beforeExecute, Runnable afterExecute,
-        Consumer<CloudiatorProcess> onSuccess) {
-      super(schedule, task, taskInterface, beforeExecute, afterExecute, onSuccess);
+        TaskInterface taskInterface, Dependencies dependencies) {
+      super(schedule, task, taskInterface, dependencies);
     }
 
     @Override
-    public Future<CloudiatorProcess> doSuccess(Node result) {
+    public ListenableFuture<CloudiatorProcess> doSuccess(Node result) {
       LOGGER.info(String.format("Node %s was created. Starting processes.",
           result));
 
@@ -202,23 +178,17 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
       return submitProcess(schedule(), build);
     }
 
-    @Override
-    public void doFailure(Throwable t) {
-      throw new IllegalStateException("Unexpected exception while spawning node", t);
-    }
-
   }
 
   private class ClusterCallback extends NodeCallback<List<Node>> {
 
     private ClusterCallback(Schedule schedule, Task task,
-        TaskInterface taskInterface, Runnable beforeExecute, Runnable afterExecute,
-        Consumer<CloudiatorProcess> onSuccess) {
-      super(schedule, task, taskInterface, beforeExecute, afterExecute, onSuccess);
+        TaskInterface taskInterface, Dependencies dependencies) {
+      super(schedule, task, taskInterface, dependencies);
     }
 
     @Override
-    public Future<CloudiatorProcess> doSuccess(List<Node> result) {
+    public ListenableFuture<CloudiatorProcess> doSuccess(List<Node> result) {
       LOGGER.info(String.format("Nodes %s were created. Starting processes.",
           result));
 
@@ -232,11 +202,6 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
       return submitProcess(schedule(), build);
     }
 
-    @Override
-    public void doFailure(Throwable t) {
-      throw new IllegalStateException("Unexpected exception while spawning node", t);
-    }
-
   }
 
   @Override
@@ -245,63 +210,61 @@ public class AutomaticInstantiationStrategy implements InstantiationStrategy {
   }
 
   @Override
-  public Future<Collection<CloudiatorProcess>> deployTask(Task task,
+  public ListenableFuture<Collection<CloudiatorProcess>> deployTask(Task task,
       TaskInterface taskInterface,
       Schedule schedule,
       Collection<ListenableFuture<Node>> allocatedResources,
-      Dependencies dependencies) {
+      @Nullable Dependencies dependencies) {
 
-    CountDownLatch countDownLatch;
-    final HashSet<CloudiatorProcess> processes = new HashSet<>();
+    final Dependencies taskDependencies =
+        dependencies != null ? dependencies : DependencyGraph.noDependencies(task);
 
-    Consumer<CloudiatorProcess> onSuccessConsumer = new Consumer<CloudiatorProcess>() {
-      @Override
-      public void accept(CloudiatorProcess cloudiatorProcess) {
-        processes.add(cloudiatorProcess);
-      }
-    };
+    final List<ListenableFuture<CloudiatorProcess>> processFutures = new LinkedList<>();
 
     switch (taskInterface.processMapping()) {
       case CLUSTER:
-        countDownLatch = new CountDownLatch(1);
-        final ListenableFuture<List<Node>> nodeFutures = Futures.allAsList(allocatedResources);
-        Futures.addCallback(nodeFutures,
-            new ClusterCallback(schedule, task, taskInterface, () -> {
-              try {
-                dependencies.await();
-              } catch (InterruptedException e) {
-                throw new IllegalStateException(e);
-              }
-            }, () -> {
-              countDownLatch.countDown();
-              dependencies.fulfill();
-            }, onSuccessConsumer),
-            EXECUTOR);
+        processFutures.add(Futures.transformAsync(Futures.allAsList(allocatedResources),
+            new ClusterCallback(schedule, task, taskInterface, taskDependencies), executor));
         break;
       case SINGLE:
-        countDownLatch = new CountDownLatch(allocatedResources.size());
         for (ListenableFuture<Node> nodeFuture : allocatedResources) {
-          Futures.addCallback(nodeFuture,
-              new SingleNodeCallback(schedule, task, taskInterface, () -> {
-                try {
-                  dependencies.await();
-                } catch (InterruptedException e) {
-                  throw new IllegalStateException(e);
-                }
-              }, () -> {
-                countDownLatch.countDown();
-                if (countDownLatch.getCount() == 0) {
-                  dependencies.fulfill();
-                }
-              }, onSuccessConsumer),
-              EXECUTOR);
+          processFutures.add(Futures.transformAsync(nodeFuture,
+              new SingleNodeCallback(schedule, task, taskInterface, taskDependencies), executor));
         }
         break;
       default:
         throw new AssertionError("Unknown process mapping " + taskInterface.processMapping());
     }
 
-    return new WaitLockImpl<>(countDownLatch, processes);
+    for (ListenableFuture<CloudiatorProcess> processFuture : processFutures) {
+      Futures.addCallback(processFuture, new FutureCallback<CloudiatorProcess>() {
+        @Override
+        public void onSuccess(@Nullable CloudiatorProcess result) {
+          //nothing to do
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          LOGGER.error(String
+              .format("Unexpected exception while spawning process for task %s of schedule %s.",
+                  task, schedule), t);
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    //fulfill the dependencies once every process of the task is done, regardless of the outcome
+    final ListenableFuture<List<CloudiatorProcess>> processes = Futures
+        .successfulAsList(processFutures);
+    processes.addListener(taskDependencies::fulfill, MoreExecutors.directExecutor());
+
+    return Futures.transform(processes, AutomaticInstantiationStrategy::createdProcesses,
+        MoreExecutors.directExecutor());
+  }
+
+  private static Collection<CloudiatorProcess> createdProcesses(
+      List<CloudiatorProcess> processes) {
+    //failed processes are reported as null by successfulAsList
+    return processes.stream().filter(Objects::nonNull).collect(Collectors.toSet());
   }
 
   @Override
@@ -18,80 +18,67 @@ package io.github.cloudiator.deployment.scheduler.instantiation;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Task;
 import io.github.cloudiator.deployment.domain.TaskInterface;
 import io.github.cloudiator.deployment.graph.JobGraph;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Tracks the deployment dependencies between the tasks of a job.
+ * <p>
+ * Each task owns exactly one future that is completed once the task has been deployed. The
+ * dependencies of a task are a composition of the futures of all upstream tasks the task needs to
+ * wait for. Hence waiting for dependencies never blocks a thread, callers chain their work onto
+ * {@link Dependencies#ready()}.
+ */
 public class DependencyGraph {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGraph.class);
 
-  private final Job job;
-  private final Map<Task, TaskLock> locks = new HashMap<>();
+  private final JobGraph jobGraph;
+  private final Map<Task, SettableFuture<Void>> deployed = new HashMap<>();
+  private final Map<Task, Dependencies> dependencies = new HashMap<>();
   private final Map<Task, TaskInterface> selectedInterfaces;
 
   private DependencyGraph(Job job, Map<Task, TaskInterface> selectedInterfaces) {
 
-    this.job = job;
+    this.jobGraph = JobGraph.of(job);
     for (Task task : job.tasks()) {
-      locks.put(task, new TaskLock(task));
+      deployed.put(task, SettableFuture.create());
     }
 
     this.selectedInterfaces = selectedInterfaces;
-
-
   }
 
   public static DependencyGraph of(Job job, Map<Task, TaskInterface> selectedInterfaces) {
     return new DependencyGraph(job, selectedInterfaces);
   }
 
-  private static class TaskLock {
-
-    private final Task task;
-    private boolean fulfilled = false;
-
-    private TaskLock(Task task) {
-      this.task = task;
-    }
-
-    public Task getTask() {
-      return task;
-    }
-
-    public void fulfill() {
-      synchronized (this) {
-        fulfilled = true;
-        this.notifyAll();
-      }
-    }
-
-    public void await() throws InterruptedException {
-      synchronized (this) {
-        if (!fulfilled) {
-          this.wait();
-        }
-      }
-    }
+  public static Dependencies noDependencies(Task task) {
+    return new Dependencies(task, Collections.emptyMap(), null);
   }
 
-  public static Dependencies noDependencies(Task task) {
-    return new Dependencies(task, Collections.emptySet(), new UpStream(null));
+  public synchronized Dependencies forTask(Task task) {
+    return dependencies.computeIfAbsent(task, this::computeDependencies);
   }
 
-  public Dependencies forTask(Task task) {
+  private Dependencies computeDependencies(Task task) {
 
-    final JobGraph jobGraph = JobGraph.of(job);
-    final HashSet<DownStream> downStreams = new HashSet<>();
+    final Map<Task, ListenableFuture<Void>> upstream = new HashMap<>();
 
     for (Task dependency : jobGraph.getDependencies(task, true)) {
 
@@ -100,109 +87,62 @@ public class DependencyGraph {
       final TaskInterface myInterface = selectedInterfaces.get(task);
 
       if (myInterface.requiresManualWait(dependencyInterface)) {
-        downStreams.add(new DownStream(locks.get(dependency)));
+        upstream.put(dependency, deployed.get(dependency));
       }
-
     }
 
-    return new Dependencies(task, downStreams, new UpStream(locks.get(task)));
+    return new Dependencies(task, upstream, deployed.get(task));
   }
 
-  public interface Dependency {
-
-    Task getTask();
-
-  }
-
-  public static class DownStream implements Dependency {
+  public static class Dependencies {
 
-    private final TaskLock taskLock;
+    private final Task task;
+    private final Set<Task> upstreamTasks;
+    private final ListenableFuture<List<Void>> ready;
+    @Nullable
+    private final SettableFuture<Void> deployed;
 
-    public DownStream(TaskLock taskLock) {
-      this.taskLock = taskLock;
+    private Dependencies(Task task, Map<Task, ListenableFuture<Void>> upstream,
+        @Nullable SettableFuture<Void> deployed) {
+      this.task = task;
+      this.upstreamTasks = ImmutableSet.copyOf(upstream.keySet());
+      this.ready = Futures.allAsList(upstream.values());
+      this.deployed = deployed;
+
+      if (!upstreamTasks.isEmpty()) {
+        LOGGER.info(
+            String.format("Task %s is waiting for these upstream components: %s", task,
+                Joiner.on(",").join(upstreamTasks)));
+        ready.addListener(() -> LOGGER.info(
+            String.format("Task %s has finished waiting for these upstream components: %s", task,
+                Joiner.on(",").join(upstreamTasks))), MoreExecutors.directExecutor());
+      }
     }
 
-    public void await() throws InterruptedException {
-      taskLock.await();
+    /**
+     * @return a future that completes once all mandatory upstream tasks are fulfilled.
+     */
+    public ListenableFuture<List<Void>> ready() {
+      return ready;
     }
 
-    @Override
-    public Task getTask() {
-      return taskLock.getTask();
-    }
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("task", taskLock.getTask())
-          .toString();
-    }
-  }
-
-  public static class UpStream implements Dependency {
-
-    @Nullable
-    private final TaskLock taskLock;
-
-    public UpStream(@Nullable TaskLock taskLock) {
-      this.taskLock = taskLock;
+    public Set<Task> upstreamTasks() {
+      return upstreamTasks;
     }
 
     public void fulfill() {
-      if (taskLock != null) {
-        taskLock.fulfill();
-      }
-    }
-
-    @Override
-    @Nullable
-    public Task getTask() {
-      if (taskLock != null) {
-        return taskLock.getTask();
+      LOGGER.info(String.format("Task %s is now fulfilling it's dependencies.", task));
+      if (deployed != null) {
+        deployed.set(null);
       }
-      return null;
     }
 
     @Override
     public String toString() {
-      return MoreObjects.toStringHelper(this).add("task", getTask())
+      return MoreObjects.toStringHelper(this).add("task", task)
+          .add("upstream", upstreamTasks.stream().map(Task::name).collect(Collectors.toList()))
           .toString();
     }
   }
 
-  public static class Dependencies {
-
-    private final Task task;
-    private final Set<DownStream> dependencies;
-    private final UpStream upStream;
-
-    private Dependencies(Task task, Set<DownStream> dependencies, UpStream upStream) {
-      this.task = task;
-      this.dependencies = dependencies;
-      this.upStream = upStream;
-    }
-
-    public void await() throws InterruptedException {
-
-      LOGGER.info(
-          String.format("Task %s is waiting for these downstream components: %s", task,
-              Joiner.on(",").join(dependencies)));
-
-      for (DownStream downStream : dependencies) {
-        downStream.await();
-      }
-
-      LOGGER.info(
-          String.format("Task %s has finished waiting for these downstream components: %s", task,
-              Joiner.on(",").join(dependencies)));
-    }
-
-    public void fulfill() {
-      LOGGER.info(String.format("Task %s is now fulfilling it's dependencies.", task));
-      upStream.fulfill();
-    }
-
-  }
-
-
 }
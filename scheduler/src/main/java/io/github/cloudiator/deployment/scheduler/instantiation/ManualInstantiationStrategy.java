@@ -28,7 +28,6 @@ import io.github.cloudiator.deployment.domain.TaskInterface;
 import io.github.cloudiator.deployment.scheduler.instantiation.DependencyGraph.Dependencies;
 import io.github.cloudiator.domain.Node;
 import java.util.Collection;
-import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 
 public class ManualInstantiationStrategy implements InstantiationStrategy {
@@ -39,8 +38,8 @@ public class ManualInstantiationStrategy implements InstantiationStrategy {
   }
 
   @Override
-  public Future<Collection<CloudiatorProcess>> deployTask(Task task, TaskInterface taskInterface,
-      Schedule schedule,
+  public ListenableFuture<Collection<CloudiatorProcess>> deployTask(Task task,
+      TaskInterface taskInterface, Schedule schedule,
       Collection<ListenableFuture<Node>> allocatedResources, @Nullable Dependencies dependencies) {
     throw new UnsupportedOperationException(
         String.format("%s does not support scheduling a single task.", this));
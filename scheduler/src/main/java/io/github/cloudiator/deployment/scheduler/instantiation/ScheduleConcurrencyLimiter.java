@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.instantiation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import javax.inject.Named;
+
+/**
+ * Limits the number of asynchronous operations that are in flight for a single schedule.
+ * Operations exceeding the limit are queued and started once a running operation of the same
+ * schedule completes. No thread is blocked while waiting for a free slot. Queued operations are
+ * started on the given executor and not on the thread completing the previous operation, so long
+ * queues neither recurse nor run foreign work on e.g. a messaging thread.
+ */
+@Singleton
+public class ScheduleConcurrencyLimiter {
+
+  private final int maxConcurrency;
+  private final Executor executor;
+  private final Map<String, Slots> slotsPerSchedule = new HashMap<>();
+
+  @Inject
+  public ScheduleConcurrencyLimiter(
+      @Named(SchedulerConstants.INSTANTIATION_SCHEDULE_CONCURRENCY) int maxConcurrency,
+      @Named("InstantiationExecution") ListeningExecutorService executor) {
+    this(maxConcurrency, (Executor) executor);
+  }
+
+  public ScheduleConcurrencyLimiter(int maxConcurrency, Executor executor) {
+    checkArgument(maxConcurrency > 0, "maxConcurrency needs to be positive.");
+    this.maxConcurrency = maxConcurrency;
+    this.executor = executor;
+  }
+
+  private static class Slots {
+
+    private int running = 0;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+  }
+
+  public <T> ListenableFuture<T> submit(String scheduleId,
+      Supplier<ListenableFuture<T>> operation) {
+
+    final SettableFuture<T> result = SettableFuture.create();
+
+    final Runnable start = () -> {
+      try {
+        final ListenableFuture<T> future = operation.get();
+        future.addListener(() -> release(scheduleId), MoreExecutors.directExecutor());
+        result.setFuture(future);
+      } catch (RuntimeException e) {
+        release(scheduleId);
+        result.setException(e);
+      }
+    };
+
+    final boolean startNow;
+    synchronized (slotsPerSchedule) {
+      final Slots slots = slotsPerSchedule.computeIfAbsent(scheduleId, s -> new Slots());
+      if (slots.running < maxConcurrency) {
+        slots.running++;
+        startNow = true;
+      } else {
+        slots.waiting.add(start);
+        startNow = false;
+      }
+    }
+
+    if (startNow) {
+      start.run();
+    }
+
+    return result;
+  }
+
+  private void release(String scheduleId) {
+
+    final Runnable next;
+    synchronized (slotsPerSchedule) {
+      final Slots slots = slotsPerSchedule.get(scheduleId);
+      next = slots.waiting.poll();
+      //the slot is handed over to the next operation, otherwise it is freed
+      if (next == null) {
+        slots.running--;
+        if (slots.running == 0) {
+          slotsPerSchedule.remove(scheduleId);
+        }
+      }
+    }
+
+    if (next != null) {
+      try {
+        executor.execute(next);
+      } catch (RejectedExecutionException e) {
+        //executor is shutting down, still complete the queued operation
+        next.run();
+      }
+    }
+  }
+
+}
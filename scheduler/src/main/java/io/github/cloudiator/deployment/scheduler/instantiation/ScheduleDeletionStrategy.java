@@ -16,29 +16,38 @@
 
 package io.github.cloudiator.deployment.scheduler.instantiation;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
-import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
-import io.github.cloudiator.deployment.domain.CloudiatorClusterProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
-import io.github.cloudiator.deployment.domain.CloudiatorSingleProcess;
 import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.domain.Task;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeMessageRepository;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.inject.Named;
 import org.cloudiator.messages.Node.NodeDeleteMessage;
 import org.cloudiator.messages.Node.NodeDeleteResponseMessage;
 import org.cloudiator.messages.Process.DeleteProcessRequest;
@@ -49,33 +58,42 @@ import org.cloudiator.messaging.services.ProcessService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Deletes all processes of a schedule and afterwards the nodes orphaned by them.
+ * <p>
+ * The job and all nodes of the schedule are retrieved once upfront. Both deletion phases issue
+ * their requests asynchronously through a {@link ScheduleConcurrencyLimiter}, with at most the
+ * configured number of requests in flight. Nodes are only deleted if the deletion of the processes
+ * running on them succeeded.
+ */
 public class ScheduleDeletionStrategy {
 
   private final ProcessService processService;
   private final NodeService nodeService;
-  private final NodeMessageRepository nodeMessageRepository;
-  private static final LoggingScheduledThreadPoolExecutor EXECUTOR = new LoggingScheduledThreadPoolExecutor(
-      5);
+  private final NodeRepository nodeMessageRepository;
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ScheduleDeletionStrategy.class);
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final PeriodicScheduler periodicScheduler;
-
-  static {
-    MoreExecutors.addDelayedShutdownHook(EXECUTOR, 5, TimeUnit.MINUTES);
-  }
+  private final int parallelism;
+  private final ScheduleConcurrencyLimiter deletionLimiter;
 
   @Inject
   public ScheduleDeletionStrategy(ProcessService processService,
       NodeService nodeService,
-      NodeMessageRepository nodeMessageRepository,
-      JobMessageRepository jobMessageRepository,
-      PeriodicScheduler periodicScheduler) {
+      NodeRepository nodeMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
+      PeriodicScheduler periodicScheduler,
+      @Named(SchedulerConstants.DELETION_PARALLELISM) int parallelism,
+      @Named("InstantiationExecution") ListeningExecutorService executor) {
+    checkArgument(parallelism > 0, "parallelism needs to be positive.");
     this.processService = processService;
     this.nodeService = nodeService;
     this.nodeMessageRepository = nodeMessageRepository;
     this.jobMessageRepository = jobMessageRepository;
     this.periodicScheduler = periodicScheduler;
+    this.parallelism = parallelism;
+    this.deletionLimiter = new ScheduleConcurrencyLimiter(parallelism, executor);
   }
 
 
@@ -86,120 +104,174 @@ public class ScheduleDeletionStrategy {
 
     LOGGER.info("Starting the deletion of schedule " + schedule);
 
-    LOGGER.debug(String.format("Deleting a total amount of %s processes for schedule %s.",
-        schedule.processes().size(), schedule));
-    final CountDownLatch countDownLatch = new CountDownLatch(schedule.processes().size());
-
-    //delete all processes
-    for (CloudiatorProcess cloudiatorProcess : schedule.processes()) {
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    final Set<CloudiatorProcess> processes = schedule.processes();
 
-      //stop the periodic scheduler for any processes of this schedule
-      Job job = jobMessageRepository.getById(schedule.userId(), schedule.job());
-      checkState(job != null, "job is null");
-      Task task = job.getTask(cloudiatorProcess.taskId())
+    //stop the periodic scheduler for all tasks of this schedule
+    Job job = jobMessageRepository.getById(schedule.userId(), schedule.job());
+    checkState(job != null, "job is null");
+    for (String taskId : processes.stream().map(CloudiatorProcess::taskId)
+        .collect(Collectors.toSet())) {
+      Task task = job.getTask(taskId)
           .orElseThrow(() -> new IllegalStateException("Task not present in job"));
-
       periodicScheduler.cancel(task, true);
+    }
 
-      //all nodes that are orphaned by deleting the process
-      Set<String> orphanedNodeIds = new HashSet<>();
+    //resolve all nodes of the schedule at once
+    final Set<String> nodeIds = schedule.nodes();
+    final Map<String, Node> nodes = nodeMessageRepository.getByIds(userId, nodeIds);
+    for (String nodeId : nodeIds) {
+      checkState(nodes.containsKey(nodeId), String
+          .format("Process reference to node is invalid. Node with id %s does not exist.",
+              nodeId));
+    }
 
-      if (cloudiatorProcess instanceof CloudiatorSingleProcess) {
-        orphanedNodeIds.add(((CloudiatorSingleProcess) cloudiatorProcess).node());
-      } else if (cloudiatorProcess instanceof CloudiatorClusterProcess) {
-        orphanedNodeIds.addAll(((CloudiatorClusterProcess) cloudiatorProcess).nodes());
-      } else {
-        throw new IllegalStateException(
-            "Unknown process type" + cloudiatorProcess.getClass().getSimpleName());
-      }
+    LOGGER.debug(String.format(
+        "Deleting a total amount of %s processes on %s nodes for schedule %s with parallelism %s.",
+        processes.size(), nodeIds.size(), schedule, parallelism));
+
+    //delete all processes
+    final AtomicInteger remainingProcesses = new AtomicInteger(processes.size());
+    final List<CloudiatorProcess> processList = new ArrayList<>(processes);
+    final List<Supplier<ListenableFuture<CloudiatorProcess>>> processDeletions = new ArrayList<>(
+        processList.size());
+    for (CloudiatorProcess cloudiatorProcess : processList) {
+      processDeletions.add(() -> Futures
+          .transform(deleteProcess(cloudiatorProcess, userId, remainingProcesses),
+              result -> cloudiatorProcess, MoreExecutors.directExecutor()));
+    }
 
-      Set<Node> orphanedNodes = new HashSet<>(orphanedNodeIds.size());
+    final List<CloudiatorProcess> deletedProcesses = await(
+        fanOut(schedule, processDeletions));
 
-      for (String orphanedNodeId : orphanedNodeIds) {
-        Node node = nodeMessageRepository
-            .getById(userId, orphanedNodeId);
-        checkState(node != null, String
-            .format("Process reference to node is invalid. Node with id %s does not exist.",
-                orphanedNodeId));
-        orphanedNodes.add(node);
+    final long processPhase = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+    LOGGER.info(String
+        .format("Deleted %s of %s processes of schedule %s in %s ms.", deletedProcesses.size(),
+            processes.size(), schedule, processPhase));
+
+    //delete the nodes orphaned by the deleted processes
+    final Set<String> orphanedNodeIds = new HashSet<>();
+    for (CloudiatorProcess cloudiatorProcess : deletedProcesses) {
+      orphanedNodeIds.addAll(cloudiatorProcess.nodes());
+    }
+    for (CloudiatorProcess cloudiatorProcess : processes) {
+      if (!deletedProcesses.contains(cloudiatorProcess)) {
+        //keep nodes still used by processes that could not be deleted
+        orphanedNodeIds.removeAll(cloudiatorProcess.nodes());
       }
+    }
 
-      //issue the process delete request
-      final DeleteProcessRequest deleteProcessRequest = DeleteProcessRequest.newBuilder()
-          .setProcessId(cloudiatorProcess.id())
-          .setUserId(userId).build();
+    LOGGER.info(String
+        .format("Starting the deletion of %s nodes orphaned by schedule %s.",
+            orphanedNodeIds.size(), schedule));
+
+    final AtomicInteger remainingNodes = new AtomicInteger(orphanedNodeIds.size());
+    final List<Supplier<ListenableFuture<Node>>> nodeDeletions = new ArrayList<>(
+        orphanedNodeIds.size());
+    for (String orphanedNodeId : orphanedNodeIds) {
+      final Node node = nodes.get(orphanedNodeId);
+      nodeDeletions.add(() -> Futures
+          .transform(deleteNode(node, userId, remainingNodes), result -> node,
+              MoreExecutors.directExecutor()));
+    }
 
-      SettableFutureResponseCallback<ProcessDeletedResponse, ProcessDeletedResponse> processFuture = SettableFutureResponseCallback
-          .create();
+    final List<Node> deletedNodes = await(fanOut(schedule, nodeDeletions));
 
-      LOGGER.info("Deleting the process " + cloudiatorProcess);
+    LOGGER.info(String.format(
+        "Deleted schedule %s: %s of %s processes in %s ms, %s of %s nodes in %s ms.",
+        schedule, deletedProcesses.size(), processes.size(), processPhase, deletedNodes.size(),
+        orphanedNodeIds.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS) - processPhase));
+  }
 
-      processService.deleteProcessAsync(deleteProcessRequest, processFuture);
+  private ListenableFuture<ProcessDeletedResponse> deleteProcess(
+      CloudiatorProcess cloudiatorProcess, String userId, AtomicInteger remaining) {
 
-      Futures.addCallback(processFuture, new FutureCallback<ProcessDeletedResponse>() {
-        @Override
-        public void onSuccess(@Nullable ProcessDeletedResponse result) {
-          //delete the node
-          LOGGER.info(String.format(
-              "Successfully deleted the process %s. Starting the deletion of the corresponding nodes %s.",
-              cloudiatorProcess.id(), orphanedNodes));
+    //issue the process delete request
+    final DeleteProcessRequest deleteProcessRequest = DeleteProcessRequest.newBuilder()
+        .setProcessId(cloudiatorProcess.id())
+        .setUserId(userId).build();
 
-          for (Node node : orphanedNodes) {
+    SettableFutureResponseCallback<ProcessDeletedResponse, ProcessDeletedResponse> processFuture = SettableFutureResponseCallback
+        .create();
 
-            final NodeDeleteMessage nodeDeleteMessage = NodeDeleteMessage.newBuilder()
-                .setNodeId(node.id()).setUserId(userId)
-                .build();
+    LOGGER.info("Deleting the process " + cloudiatorProcess);
 
-            SettableFutureResponseCallback<NodeDeleteResponseMessage, NodeDeleteResponseMessage> nodeFuture = SettableFutureResponseCallback
-                .create();
+    processService.deleteProcessAsync(deleteProcessRequest, processFuture);
 
-            nodeService.deleteNodeAsync(nodeDeleteMessage, nodeFuture);
+    Futures.addCallback(processFuture, new FutureCallback<ProcessDeletedResponse>() {
+      @Override
+      public void onSuccess(@Nullable ProcessDeletedResponse result) {
+        LOGGER.debug(String
+            .format("Deleted process %s. %s processes remaining.", cloudiatorProcess,
+                remaining.decrementAndGet()));
+      }
 
-            try {
-              nodeFuture.get();
-            } catch (InterruptedException e) {
-              throw new IllegalStateException(String
-                  .format("Interrupted while deleting node with id %s.",
-                      node),
-                  e);
-            } catch (ExecutionException e) {
-              throw new IllegalStateException(String
-                  .format("Error while deleting node %s of process %s.",
-                      node,
-                      cloudiatorProcess), e);
-            }
+      @Override
+      public void onFailure(Throwable t) {
+        LOGGER.error(String.format("Error while deleting process %s. %s processes remaining.",
+            cloudiatorProcess, remaining.decrementAndGet()), t);
+      }
+    }, MoreExecutors.directExecutor());
 
-          }
+    return processFuture;
+  }
 
-          countDownLatch.countDown();
+  private ListenableFuture<NodeDeleteResponseMessage> deleteNode(Node node, String userId,
+      AtomicInteger remaining) {
 
-          LOGGER.debug(String
-              .format("Deleted process %s. %s processes remaining.", cloudiatorProcess,
-                  countDownLatch.getCount()));
-        }
+    final NodeDeleteMessage nodeDeleteMessage = NodeDeleteMessage.newBuilder()
+        .setNodeId(node.id()).setUserId(userId)
+        .build();
 
+    SettableFutureResponseCallback<NodeDeleteResponseMessage, NodeDeleteResponseMessage> nodeFuture = SettableFutureResponseCallback
+        .create();
 
-        @Override
-        public void onFailure(Throwable t) {
-          LOGGER.error(String.format("Error while deleting process %s.", cloudiatorProcess), t);
-          countDownLatch.countDown();
-          throw new IllegalStateException(
-              String.format("Error while deleting process %s.", cloudiatorProcess), t);
-        }
-      }, EXECUTOR);
+    LOGGER.info("Deleting the node " + node);
 
+    nodeMessageRepository.invalidate(node.id());
+    nodeService.deleteNodeAsync(nodeDeleteMessage, nodeFuture);
 
-    }
+    Futures.addCallback(nodeFuture, new FutureCallback<NodeDeleteResponseMessage>() {
+      @Override
+      public void onSuccess(@Nullable NodeDeleteResponseMessage result) {
+        LOGGER.debug(String
+            .format("Deleted node %s. %s nodes remaining.", node, remaining.decrementAndGet()));
+      }
 
-    LOGGER.debug("Waiting for all processes and corresponding nodes to be delete.");
-    try {
-      countDownLatch.await();
+      @Override
+      public void onFailure(Throwable t) {
+        LOGGER.error(String.format("Error while deleting node %s. %s nodes remaining.", node,
+            remaining.decrementAndGet()), t);
+      }
+    }, MoreExecutors.directExecutor());
 
-      LOGGER.info(String.format("Deleted schedule %s successfully", schedule));
+    return nodeFuture;
+  }
 
+  /**
+   * Starts the given operations with at most parallelism operations of the schedule in flight.
+   *
+   * @return the results of all operations, null for failed operations
+   */
+  private <T> ListenableFuture<List<T>> fanOut(Schedule schedule,
+      List<Supplier<ListenableFuture<T>>> operations) {
+
+    final List<ListenableFuture<T>> results = new ArrayList<>(operations.size());
+    for (Supplier<ListenableFuture<T>> operation : operations) {
+      results.add(deletionLimiter.submit(schedule.id(), operation));
+    }
+    return Futures.successfulAsList(results);
+  }
+
+  private static <T> List<T> await(ListenableFuture<List<T>> future) {
+    try {
+      return future.get().stream().filter(Objects::nonNull).collect(Collectors.toList());
     } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
       throw new IllegalStateException(
-          "Interrupted while waiting for termination of all processes.");
+          "Interrupted while waiting for termination of all processes.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Unexpected error while deleting schedule.", e.getCause());
     }
   }
 
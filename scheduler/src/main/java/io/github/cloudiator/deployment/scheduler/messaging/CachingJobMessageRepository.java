@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.execution.Schedulable;
+import de.uniulm.omi.cloudiator.util.statistics.StatisticInterface;
+import io.github.cloudiator.deployment.domain.Job;
+import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import io.github.cloudiator.deployment.scheduler.statistics.JobCacheStatistics;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache in front of the {@link JobMessageRepository}.
+ *
+ * <p>Jobs are immutable once the job agent persisted them and are never deleted, so cached jobs
+ * are only dropped once they expire. The cache is bounded by the total number of tasks of all
+ * cached jobs. Unknown jobs are not cached. The cache statistics are reported periodically, so
+ * hits and misses are covered without reporting on every lookup.
+ */
+@Singleton
+public class CachingJobMessageRepository implements MessageRepository<Job>, Schedulable {
+
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(CachingJobMessageRepository.class);
+
+  private final JobMessageRepository jobMessageRepository;
+  private final Cache<JobKey, Job> cache;
+  private volatile JobCacheStatistics jobCacheStatistics;
+
+  @Inject
+  public CachingJobMessageRepository(JobMessageRepository jobMessageRepository,
+      @Named(SchedulerConstants.JOB_CACHE_TTL) long ttl,
+      @Named(SchedulerConstants.JOB_CACHE_MAX_WEIGHT) long maxWeight) {
+    this.jobMessageRepository = jobMessageRepository;
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(ttl, TimeUnit.SECONDS)
+        .maximumWeight(maxWeight)
+        .weigher((JobKey key, Job job) -> 1 + job.tasks().size())
+        .recordStats()
+        .build();
+  }
+
+  @Inject(optional = true)
+  void setStatisticInterface(StatisticInterface statisticInterface) {
+    this.jobCacheStatistics = new JobCacheStatistics(statisticInterface);
+  }
+
+  @Nullable
+  @Override
+  public Job getById(String userId, String id) {
+
+    final JobKey key = new JobKey(userId, id);
+
+    final Job cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    //concurrent misses for the same job may both query the job agent, which is harmless
+    final Job job = jobMessageRepository.getById(userId, id);
+    if (job != null) {
+      cache.put(key, job);
+    } else {
+      LOGGER.debug(String.format("Job %s of user %s does not exist, not caching.", id, userId));
+    }
+
+    return job;
+  }
+
+  @Override
+  public List<Job> getAll(String userId) {
+    final List<Job> jobs = jobMessageRepository.getAll(userId);
+    for (Job job : jobs) {
+      cache.put(new JobKey(userId, job.id()), job);
+    }
+    return jobs;
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public long period() {
+    return 1;
+  }
+
+  @Override
+  public long delay() {
+    return 1;
+  }
+
+  @Override
+  public TimeUnit timeUnit() {
+    return TimeUnit.MINUTES;
+  }
+
+  @Override
+  public void run() {
+    final JobCacheStatistics statistics = jobCacheStatistics;
+    if (statistics != null) {
+      statistics.cacheStats(cache.stats(), cache.size());
+    }
+  }
+
+  private static class JobKey {
+
+    private final String userId;
+    private final String jobId;
+
+    private JobKey(String userId, String jobId) {
+      this.userId = userId;
+      this.jobId = jobId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      JobKey jobKey = (JobKey) o;
+      return userId.equals(jobKey.userId) && jobId.equals(jobKey.jobId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(userId, jobId);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("userId", userId).add("jobId", jobId)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.domain.Node;
+import io.github.cloudiator.domain.NodeState;
+import io.github.cloudiator.messaging.NodeMessageRepository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler side view on the nodes of the node agent.
+ *
+ * <p>Running nodes are kept locally and refreshed by the node events received by the {@link
+ * NodeEventSubscriber}, so lookups for them do not need a request to the node agent. Nodes in any
+ * other state are always fetched, as their state is expected to change. Up to {@link
+ * #SINGLE_FETCH_LIMIT} nodes of a user that are not known locally are fetched one by one, more are
+ * resolved by a single listing of all nodes of the user. The listing transfers every node of the
+ * user, so it only pays off once it saves several requests.
+ */
+@Singleton
+public class CachingNodeMessageRepository implements NodeRepository {
+
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(CachingNodeMessageRepository.class);
+  private static final int SINGLE_FETCH_LIMIT = 3;
+
+  private final NodeMessageRepository nodeMessageRepository;
+  private final Map<String, Node> runningNodes = new ConcurrentHashMap<>();
+
+  @Inject
+  public CachingNodeMessageRepository(NodeMessageRepository nodeMessageRepository) {
+    this.nodeMessageRepository = nodeMessageRepository;
+  }
+
+  @Nullable
+  @Override
+  public Node getById(String userId, String id) {
+
+    final Node cached = cached(userId, id);
+    if (cached != null) {
+      return cached;
+    }
+
+    final Node node = nodeMessageRepository.getById(userId, id);
+    if (node != null) {
+      update(node);
+    }
+    return node;
+  }
+
+  @Override
+  public List<Node> getAll(String userId) {
+    final List<Node> nodes = nodeMessageRepository.getAll(userId);
+    nodes.forEach(this::update);
+    return nodes;
+  }
+
+  @Override
+  public Map<String, Node> getByIds(String userId, Collection<String> ids) {
+
+    final Map<String, Node> result = new HashMap<>(ids.size());
+    final Set<String> missing = new HashSet<>();
+
+    for (String id : ids) {
+      final Node cached = cached(userId, id);
+      if (cached != null) {
+        result.put(id, cached);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    if (missing.size() <= SINGLE_FETCH_LIMIT) {
+      for (String id : missing) {
+        final Node node = getById(userId, id);
+        if (node != null) {
+          result.put(id, node);
+        }
+      }
+      return result;
+    }
+
+    LOGGER.debug(String
+        .format("Fetching all nodes of user %s to resolve %s unknown nodes.", userId,
+            missing.size()));
+
+    for (Node node : nodeMessageRepository.getAll(userId)) {
+      update(node);
+      if (missing.contains(node.id())) {
+        result.put(node.id(), node);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public void update(Node node) {
+    if (NodeState.RUNNING.equals(node.state())) {
+      runningNodes.put(node.id(), node);
+    } else {
+      runningNodes.remove(node.id());
+    }
+  }
+
+  @Override
+  public Future<?> delete(String userId, String id) {
+    invalidate(id);
+    return nodeMessageRepository.delete(userId, id);
+  }
+
+  @Override
+  public void invalidate(String id) {
+    runningNodes.remove(id);
+  }
+
+  @Nullable
+  private Node cached(String userId, String id) {
+    final Node node = runningNodes.get(id);
+    if (node != null && node.userId().equals(userId)) {
+      return node;
+    }
+    return null;
+  }
+}
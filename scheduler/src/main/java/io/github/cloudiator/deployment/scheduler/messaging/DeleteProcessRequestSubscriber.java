@@ -19,6 +19,7 @@ package io.github.cloudiator.deployment.scheduler.messaging;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessKiller;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
 import org.cloudiator.messages.General.Error;
@@ -38,17 +39,20 @@ public class DeleteProcessRequestSubscriber implements Runnable {
   private final ProcessDomainRepository processDomainRepository;
   private final MessageInterface messageInterface;
   private final ProcessKiller processKiller;
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public DeleteProcessRequestSubscriber(
       ProcessService processService,
       ProcessDomainRepository processDomainRepository,
       MessageInterface messageInterface,
-      ProcessKiller processKiller) {
+      ProcessKiller processKiller,
+      WriteBehindStateStore stateStore) {
     this.processService = processService;
     this.processDomainRepository = processDomainRepository;
     this.messageInterface = messageInterface;
     this.processKiller = processKiller;
+    this.stateStore = stateStore;
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -78,7 +82,8 @@ public class DeleteProcessRequestSubscriber implements Runnable {
 
         try {
 
-          //retrieve the process
+          //retrieve the process, including a buffered one
+          stateStore.flush();
           final CloudiatorProcess process = getProcess(processId, userId);
 
           if (process == null) {
@@ -97,6 +102,7 @@ public class DeleteProcessRequestSubscriber implements Runnable {
 
           processKiller.kill(process);
 
+          stateStore.delete(process);
           deleteProcess(process, userId);
 
           LOGGER.info(String.format("Successfully delete process %s.", process));
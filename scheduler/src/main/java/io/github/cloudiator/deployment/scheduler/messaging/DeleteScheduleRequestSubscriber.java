@@ -20,6 +20,7 @@ import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.scheduler.instantiation.ScheduleDeletionStrategy;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.Process.DeleteScheduleRequest;
@@ -39,17 +40,20 @@ public class DeleteScheduleRequestSubscriber implements Runnable {
   private final MessageInterface messageInterface;
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final ScheduleDeletionStrategy scheduleDeletionStrategy;
+  private final WriteBehindStateStore stateStore;
 
 
   @Inject
   public DeleteScheduleRequestSubscriber(
       ProcessService processService, MessageInterface messageInterface,
       ScheduleDomainRepository scheduleDomainRepository,
-      ScheduleDeletionStrategy scheduleDeletionStrategy) {
+      ScheduleDeletionStrategy scheduleDeletionStrategy,
+      WriteBehindStateStore stateStore) {
     this.processService = processService;
     this.messageInterface = messageInterface;
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.scheduleDeletionStrategy = scheduleDeletionStrategy;
+    this.stateStore = stateStore;
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -80,16 +84,20 @@ public class DeleteScheduleRequestSubscriber implements Runnable {
 
         try {
 
+          //the schedule has to include all buffered processes, otherwise they are not deleted
+          stateStore.flush();
           final Schedule schedule = retrieveSchedule(scheduleId, userId);
 
           if (schedule == null) {
             messageInterface.reply(ScheduleDeleteResponse.class, id, Error.newBuilder().setCode(404)
                 .setMessage(String.format("Schedule with the id %s does not exist.", scheduleId))
                 .build());
+            return;
           }
 
           scheduleDeletionStrategy.delete(schedule, userId);
 
+          stateStore.delete(schedule);
           deleteSchedule(schedule, userId);
 
           messageInterface.reply(id, ScheduleDeleteResponse.newBuilder().build());
@@ -18,6 +18,7 @@ package io.github.cloudiator.deployment.scheduler.messaging;
 
 import com.google.inject.Inject;
 import io.github.cloudiator.deployment.scheduler.failure.NodeFailureReportingInterface;
+import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.domain.NodeState;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import org.cloudiator.messaging.services.NodeService;
@@ -26,12 +27,18 @@ public class NodeEventSubscriber implements Runnable {
 
   private final NodeService nodeService;
   private final NodeFailureReportingInterface nodeFailureReportingInterface;
+  private final NodeRepository nodeMessageRepository;
+  private final NodeReadinessRegistry nodeReadinessRegistry;
 
   @Inject
   public NodeEventSubscriber(NodeService nodeService,
-      NodeFailureReportingInterface nodeFailureReportingInterface) {
+      NodeFailureReportingInterface nodeFailureReportingInterface,
+      NodeRepository nodeMessageRepository,
+      NodeReadinessRegistry nodeReadinessRegistry) {
     this.nodeService = nodeService;
     this.nodeFailureReportingInterface = nodeFailureReportingInterface;
+    this.nodeMessageRepository = nodeMessageRepository;
+    this.nodeReadinessRegistry = nodeReadinessRegistry;
   }
 
   @Override
@@ -41,10 +48,21 @@ public class NodeEventSubscriber implements Runnable {
       NodeState toState = NodeToNodeMessageConverter.NODE_STATE_CONVERTER
           .applyBack(content.getTo());
 
+      final Node node = NodeToNodeMessageConverter.INSTANCE.applyBack(content.getNode());
+
+      //keep the local view on running nodes up to date
+      if (toState.equals(NodeState.RUNNING)) {
+        nodeMessageRepository.update(node);
+      } else {
+        nodeMessageRepository.invalidate(node.id());
+      }
+
+      //wake up everybody waiting for the node
+      nodeReadinessRegistry.nodeChanged(node);
+
       //check if node failure
       if (toState.equals(NodeState.ERROR)) {
-        nodeFailureReportingInterface
-            .addNodeFailure(NodeToNodeMessageConverter.INSTANCE.applyBack(content.getNode()));
+        nodeFailureReportingInterface.addNodeFailure(node);
       }
     });
   }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.github.cloudiator.domain.Node;
+import io.github.cloudiator.domain.NodeState;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allows to wait for nodes to leave the {@link NodeState#PENDING} state.
+ *
+ * <p>Waiting callers receive a future that is completed by the node events received by the
+ * {@link NodeEventSubscriber} as soon as the node reaches a final state, i.e. without polling the
+ * node agent.
+ */
+@Singleton
+public class NodeReadinessRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeReadinessRegistry.class);
+
+  private final NodeRepository nodeMessageRepository;
+  /**
+   * the waiting futures per node id, the sets are only modified inside compute
+   */
+  private final Map<String, Set<SettableFuture<Node>>> waiting = new ConcurrentHashMap<>();
+
+  @Inject
+  public NodeReadinessRegistry(NodeRepository nodeMessageRepository) {
+    this.nodeMessageRepository = nodeMessageRepository;
+  }
+
+  /**
+   * Returns a future completing with the node once it is no longer pending (or unknown). The
+   * future never fails, callers are expected to apply a timeout when waiting for it and to cancel
+   * it if they stop waiting, so that it is removed from the registry.
+   *
+   * @param userId the owner of the node
+   * @param id the id of the node
+   * @return a future of the node in a state other than pending
+   */
+  public ListenableFuture<Node> awaitReady(String userId, String id) {
+
+    //register before querying the current state, so that no event can get lost in between
+    final SettableFuture<Node> future = SettableFuture.create();
+    waiting.compute(id, (k, futures) -> {
+      final Set<SettableFuture<Node>> result = futures == null ? new HashSet<>() : futures;
+      result.add(future);
+      return result;
+    });
+    future.addListener(() -> waiting.computeIfPresent(id, (k, futures) -> {
+      futures.remove(future);
+      return futures.isEmpty() ? null : futures;
+    }), MoreExecutors.directExecutor());
+
+    final Node node = nodeMessageRepository.getById(userId, id);
+    if (node != null) {
+      nodeChanged(node);
+    } else {
+      LOGGER.debug(String.format("Node %s is not yet known. Waiting for it.", id));
+    }
+
+    return future;
+  }
+
+  /**
+   * Notifies the registry about the current state of a node.
+   *
+   * @param node the node
+   */
+  public void nodeChanged(Node node) {
+    if (NodeState.PENDING.equals(node.state())) {
+      return;
+    }
+    final Set<SettableFuture<Node>> futures = waiting.remove(node.id());
+    if (futures != null) {
+      for (SettableFuture<Node> future : futures) {
+        future.set(node);
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import io.github.cloudiator.deployment.messaging.MessageRepository;
+import io.github.cloudiator.domain.Node;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Scheduler side access to the nodes of the node agent.
+ */
+public interface NodeRepository extends MessageRepository<Node> {
+
+  /**
+   * Retrieves all given nodes. Depending on the number of unknown nodes, this may list all nodes
+   * of the user, which is one request but transfers every node of the user.
+   *
+   * @param userId the owner of the nodes
+   * @param ids the ids of the nodes
+   * @return the found nodes by their id, ids of nodes that do not exist are missing
+   */
+  Map<String, Node> getByIds(String userId, Collection<String> ids);
+
+  /**
+   * Updates the local view with the given node, e.g. after it changed its state.
+   *
+   * @param node the node
+   */
+  void update(Node node);
+
+  /**
+   * Deletes the node.
+   *
+   * @param userId the owner of the node
+   * @param id the id of the node
+   * @return a future completing once the node is deleted
+   */
+  Future<?> delete(String userId, String id);
+
+  /**
+   * Drops the local view of the node, so the next lookup fetches it again.
+   *
+   * @param id the id of the node
+   */
+  void invalidate(String id);
+}
@@ -21,6 +21,7 @@ import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
 import java.util.Collections;
 import java.util.List;
@@ -39,15 +40,17 @@ public class ProcessQuerySubscriber implements Runnable {
   private final ProcessService processService;
   private final ProcessDomainRepository processDomainRepository;
   private final MessageInterface messageInterface;
-
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public ProcessQuerySubscriber(ProcessService processService,
       ProcessDomainRepository processDomainRepository,
-      MessageInterface messageInterface) {
+      MessageInterface messageInterface,
+      WriteBehindStateStore stateStore) {
     this.processService = processService;
     this.processDomainRepository = processDomainRepository;
     this.messageInterface = messageInterface;
+    this.stateStore = stateStore;
   }
 
   @Override
@@ -64,8 +67,9 @@ public class ProcessQuerySubscriber implements Runnable {
           final List<CloudiatorProcess> query = query(userId, scheduleId, processId);
 
           messageInterface.reply(id, ProcessQueryResponse.newBuilder()
-              .addAllProcesses(query.stream().map(PROCESS_MESSAGE_CONVERTER::applyBack).collect(
-                  Collectors.toList())).build());
+              .addAllProcesses(query.stream().map(stateStore::current)
+                  .map(PROCESS_MESSAGE_CONVERTER::applyBack).collect(
+                      Collectors.toList())).build());
 
 
         } catch (Exception e) {
@@ -18,6 +18,7 @@ package io.github.cloudiator.deployment.scheduler.messaging;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.MoreObjects;
 import org.cloudiator.messages.Process.CreateProcessRequest;
 
 public class ProcessRequest {
@@ -44,4 +45,9 @@ public class ProcessRequest {
   public CreateProcessRequest getCreateProcessRequest() {
     return createProcessRequest;
   }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("id", id).toString();
+  }
 }
@@ -16,6 +16,9 @@
 
 package io.github.cloudiator.deployment.scheduler.messaging;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.CloudiatorClusterProcessBuilder;
@@ -26,15 +29,15 @@ import io.github.cloudiator.deployment.domain.CloudiatorSingleProcessBuilder;
 import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.domain.Task;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
 import io.github.cloudiator.deployment.scheduler.ProcessStateMachine;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessSpawner;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -54,23 +57,25 @@ public class ProcessRequestSubscriber implements Runnable {
       .getLogger(ProcessRequestSubscriber.class);
   private final ProcessService processService;
   private final MessageInterface messageInterface;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final ProcessSpawner processSpawner;
-  private final NodeMessageRepository nodeMessageRepository;
+  private final NodeRepository nodeMessageRepository;
   private static final ProcessMessageConverter PROCESS_MESSAGE_CONVERTER = ProcessMessageConverter.INSTANCE;
   private final ProcessDomainRepository processDomainRepository;
   private final ProcessStateMachine processStateMachine;
+  private final ProcessRequestQueue processRequestQueue;
 
   @Inject
   public ProcessRequestSubscriber(ProcessService processService,
       MessageInterface messageInterface,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       ScheduleDomainRepository scheduleDomainRepository,
       ProcessSpawner processSpawner,
-      NodeMessageRepository nodeMessageRepository,
+      NodeRepository nodeMessageRepository,
       ProcessDomainRepository processDomainRepository,
-      ProcessStateMachine processStateMachine) {
+      ProcessStateMachine processStateMachine,
+      ProcessRequestQueue processRequestQueue) {
     this.processService = processService;
     this.messageInterface = messageInterface;
     this.jobMessageRepository = jobMessageRepository;
@@ -79,6 +84,7 @@ public class ProcessRequestSubscriber implements Runnable {
     this.nodeMessageRepository = nodeMessageRepository;
     this.processDomainRepository = processDomainRepository;
     this.processStateMachine = processStateMachine;
+    this.processRequestQueue = processRequestQueue;
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -127,117 +133,146 @@ public class ProcessRequestSubscriber implements Runnable {
 
   @Override
   public void run() {
+    processRequestQueue.start(this::handle);
     processService.subscribeCreateProcessRequest(new MessageCallback<CreateProcessRequest>() {
       @Override
       public void accept(String id, CreateProcessRequest content) {
 
-        try {
-
-          LOGGER.info(String.format("%s received new process request %s.", this, content));
-
-          final String userId = content.getUserId();
-          final String scheduleId = content.getProcess().getSchedule();
-
-          LOGGER.debug(String.format("Retrieving schedule for process request %s.", id));
-          final Schedule schedule = retrieveSchedule(scheduleId, userId);
-
-          if (schedule == null) {
-            LOGGER.error(String.format("Schedule with the id %s does not exist.", scheduleId));
-            messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(404)
-                .setMessage(String.format("Schedule with the id %s does not exist", scheduleId))
-                .build());
-            return;
-          }
-          LOGGER
-              .debug(String.format("Found schedule %s for process request %s.", schedule.id(), id));
-
-          final String jobId = schedule.job();
-          final String taskName = content.getProcess().getTask();
-
-          final Set<String> nodeIds = new HashSet<>();
-          switch (content.getProcess().getRunsOnCase()) {
-            case NODE:
-              nodeIds.add(content.getProcess().getNode());
-              break;
-            case CLUSTER:
-              nodeIds.addAll(content.getProcess().getCluster().getNodesList());
-              break;
-            case RUNSON_NOT_SET:
-            default:
-              throw new AssertionError(
-                  "Unknown process type " + content.getProcess().getRunsOnCase());
-          }
-
-          //retrieve the nodes
-          for (String nodeId : nodeIds) {
-            final Node node = nodeMessageRepository.getById(userId, nodeId);
-            if (node == null) {
-              messageInterface.reply(ProcessCreatedResponse.class, id,
-                  Error.newBuilder().setCode(404)
-                      .setMessage(String.format("Node with the id %s does not exist.", nodeId))
-                      .build());
-              return;
-            }
-          }
-
-          LOGGER.debug(String.format("Retrieving job for process request %s.", id));
-          final Job job = jobMessageRepository.getById(userId, jobId);
-
-          if (job == null) {
-            LOGGER.error(String.format("Job with the id %s does not exist.", jobId));
-            messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(500)
-                .setMessage(String
-                    .format("Job with the id %s does not exist but is referenced by schedule %s.",
-                        jobId, schedule)).build());
-            return;
-          }
-          LOGGER
-              .debug(String.format("Found job %s for process request %s.", job.id(), id));
-
-          LOGGER.debug(String.format("Checking task for process request %s.", id));
-          final Optional<Task> optionalTask = job.getTask(taskName);
-
-          if (!optionalTask.isPresent()) {
-            LOGGER.error(String
-                .format("Task with the name %s on job with id %s does not exist.", taskName,
-                    jobId));
-            messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(404)
-                .setMessage(String
-                    .format("Task with name %s does not exist in job with id %s.", taskName, jobId))
-                .build());
-            return;
-          }
-
-          final Task task = optionalTask.get();
-          LOGGER
-              .debug(String.format("Found task %s for process request %s.", task, id));
-
-          LOGGER.info(String.format(
-              "%s is spawning a new cloudiator process for user %s, schedule %s, job %s, task %s and nodes %s.",
-              this, userId, schedule, job, task, nodeIds));
-
-          final CloudiatorProcess cloudiatorProcess = initializeProcess(content);
-
-          persistProcess(cloudiatorProcess);
-
-          final CloudiatorProcess created = processStateMachine
-              .apply(cloudiatorProcess, ProcessState.RUNNING, null);
-
-          final ProcessCreatedResponse build = ProcessCreatedResponse.newBuilder()
-              .setProcess(PROCESS_MESSAGE_CONVERTER.applyBack(created)).build();
-
-          messageInterface.reply(id, build);
-
-        } catch (Exception e) {
-          final String errorMessage = String
-              .format("Unexpected error while processing request %s with id %s.", content, id);
-          LOGGER.error(errorMessage, e);
-          messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(500)
-              .setMessage(errorMessage)
+        if (!processRequestQueue.offer(ProcessRequest.of(id, content))) {
+          messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(503)
+              .setMessage("Scheduler is overloaded, rejecting process request.")
               .build());
         }
       }
-
     });
   }
+
+  private void handle(ProcessRequest processRequest) {
+
+    final String id = processRequest.getId();
+    final CreateProcessRequest content = processRequest.getCreateProcessRequest();
+
+    try {
+
+      LOGGER.info(String.format("%s received new process request %s.", this, content));
+
+      final String userId = content.getUserId();
+      final String scheduleId = content.getProcess().getSchedule();
+
+      LOGGER.debug(String.format("Retrieving schedule for process request %s.", id));
+      final Schedule schedule = retrieveSchedule(scheduleId, userId);
+
+      if (schedule == null) {
+        LOGGER.error(String.format("Schedule with the id %s does not exist.", scheduleId));
+        messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(404)
+            .setMessage(String.format("Schedule with the id %s does not exist", scheduleId))
+            .build());
+        return;
+      }
+      LOGGER
+          .debug(String.format("Found schedule %s for process request %s.", schedule.id(), id));
+
+      final String jobId = schedule.job();
+      final String taskName = content.getProcess().getTask();
+
+      final Set<String> nodeIds = new HashSet<>();
+      switch (content.getProcess().getRunsOnCase()) {
+        case NODE:
+          nodeIds.add(content.getProcess().getNode());
+          break;
+        case CLUSTER:
+          nodeIds.addAll(content.getProcess().getCluster().getNodesList());
+          break;
+        case RUNSON_NOT_SET:
+        default:
+          throw new AssertionError(
+              "Unknown process type " + content.getProcess().getRunsOnCase());
+      }
+
+      //retrieve the nodes
+      final Map<String, Node> nodes = nodeMessageRepository.getByIds(userId, nodeIds);
+      for (String nodeId : nodeIds) {
+        if (!nodes.containsKey(nodeId)) {
+          messageInterface.reply(ProcessCreatedResponse.class, id,
+              Error.newBuilder().setCode(404)
+                  .setMessage(String.format("Node with the id %s does not exist.", nodeId))
+                  .build());
+          return;
+        }
+      }
+
+      LOGGER.debug(String.format("Retrieving job for process request %s.", id));
+      final Job job = jobMessageRepository.getById(userId, jobId);
+
+      if (job == null) {
+        LOGGER.error(String.format("Job with the id %s does not exist.", jobId));
+        messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(500)
+            .setMessage(String
+                .format("Job with the id %s does not exist but is referenced by schedule %s.",
+                    jobId, schedule)).build());
+        return;
+      }
+      LOGGER
+          .debug(String.format("Found job %s for process request %s.", job.id(), id));
+
+      LOGGER.debug(String.format("Checking task for process request %s.", id));
+      final Optional<Task> optionalTask = job.getTask(taskName);
+
+      if (!optionalTask.isPresent()) {
+        LOGGER.error(String
+            .format("Task with the name %s on job with id %s does not exist.", taskName,
+                jobId));
+        messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(404)
+            .setMessage(String
+                .format("Task with name %s does not exist in job with id %s.", taskName, jobId))
+            .build());
+        return;
+      }
+
+      final Task task = optionalTask.get();
+      LOGGER
+          .debug(String.format("Found task %s for process request %s.", task, id));
+
+      LOGGER.info(String.format(
+          "%s is spawning a new cloudiator process for user %s, schedule %s, job %s, task %s and nodes %s.",
+          this, userId, schedule, job, task, nodeIds));
+
+      final CloudiatorProcess cloudiatorProcess = initializeProcess(content);
+
+      persistProcess(cloudiatorProcess);
+
+      //reply once the transition completed, without occupying this worker meanwhile
+      Futures.addCallback(processStateMachine
+              .applyAsync(cloudiatorProcess, ProcessState.RUNNING, null),
+          new FutureCallback<CloudiatorProcess>() {
+            @Override
+            public void onSuccess(CloudiatorProcess created) {
+              final ProcessCreatedResponse build = ProcessCreatedResponse.newBuilder()
+                  .setProcess(PROCESS_MESSAGE_CONVERTER.applyBack(created)).build();
+
+              messageInterface.reply(id, build);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              final String errorMessage = String
+                  .format("Unexpected error while processing request %s with id %s.", content,
+                      id);
+              LOGGER.error(errorMessage, t);
+              messageInterface.reply(ProcessCreatedResponse.class, id,
+                  Error.newBuilder().setCode(500)
+                      .setMessage(errorMessage)
+                      .build());
+            }
+          }, MoreExecutors.directExecutor());
+
+    } catch (Exception e) {
+      final String errorMessage = String
+          .format("Unexpected error while processing request %s with id %s.", content, id);
+      LOGGER.error(errorMessage, e);
+      messageInterface.reply(ProcessCreatedResponse.class, id, Error.newBuilder().setCode(500)
+          .setMessage(errorMessage)
+          .build());
+    }
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
+import de.uniulm.omi.cloudiator.util.statistics.StatisticInterface;
+import io.github.cloudiator.deployment.scheduler.statistics.QueueStatistics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded request queue that is split into shards, each consumed by exactly one {@link
+ * RequestWorker}. Requests with the same {@link #shardKey(Object)} always end up in the same shard
+ * and are therefore handled in order, while requests of different shards are handled in
+ * parallel.
+ *
+ * @param <T> the type of the request
+ */
+public abstract class RequestQueue<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestQueue.class);
+
+  private final String name;
+  private final int capacity;
+  private final List<BlockingQueue<QueuedRequest<T>>> shards;
+  private final AtomicInteger depth = new AtomicInteger(0);
+  @Nullable
+  private LoggingThreadPoolExecutor workers;
+  @Nullable
+  private volatile QueueStatistics queueStatistics;
+
+  protected RequestQueue(String name, int numberOfShards, int capacity) {
+    checkArgument(numberOfShards > 0, "numberOfShards needs to be positive.");
+    checkArgument(capacity > 0, "capacity needs to be positive.");
+    this.name = name;
+    this.capacity = capacity;
+    this.shards = new ArrayList<>(numberOfShards);
+    for (int i = 0; i < numberOfShards; i++) {
+      shards.add(new LinkedBlockingQueue<>());
+    }
+  }
+
+  @Inject(optional = true)
+  void setStatisticInterface(StatisticInterface statisticInterface) {
+    this.queueStatistics = new QueueStatistics(statisticInterface);
+  }
+
+  /**
+   * Returns the key used to select the shard of the request.
+   *
+   * @param request the request
+   * @return the shard key
+   */
+  protected abstract String shardKey(T request);
+
+  /**
+   * Enqueues the request.
+   *
+   * @param request the request
+   * @return true if the request was accepted, false if the queue reached its capacity
+   */
+  public boolean offer(T request) {
+    checkNotNull(request, "request is null");
+
+    if (depth.incrementAndGet() > capacity) {
+      depth.decrementAndGet();
+      LOGGER.warn(String
+          .format("%s reached its capacity of %s requests. Rejecting request %s.", this,
+              capacity, request));
+      return false;
+    }
+
+    shards.get(Math.floorMod(shardKey(request).hashCode(), shards.size()))
+        .add(new QueuedRequest<>(request, System.nanoTime()));
+    return true;
+  }
+
+  public int depth() {
+    return depth.get();
+  }
+
+  /**
+   * Starts one worker per shard, each handing the requests of its shard to the handler.
+   *
+   * @param handler the request handler
+   */
+  public synchronized void start(Consumer<T> handler) {
+    checkState(workers == null, String.format("%s was already started.", this));
+
+    workers = new LoggingThreadPoolExecutor(shards.size(), shards.size(), 0L,
+        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    MoreExecutors.addDelayedShutdownHook(workers, 1, TimeUnit.MINUTES);
+
+    for (int i = 0; i < shards.size(); i++) {
+      workers.execute(new RequestWorker<>(this, i, handler));
+    }
+  }
+
+  QueuedRequest<T> take(int shard) throws InterruptedException {
+    final QueuedRequest<T> queuedRequest = shards.get(shard).take();
+    depth.decrementAndGet();
+    return queuedRequest;
+  }
+
+  void handled(int shard, QueuedRequest<T> queuedRequest, long serviceStart, long serviceEnd) {
+
+    final long waitTime = TimeUnit.NANOSECONDS
+        .toMillis(serviceStart - queuedRequest.enqueued());
+    final long serviceTime = TimeUnit.NANOSECONDS.toMillis(serviceEnd - serviceStart);
+    final int currentDepth = depth();
+
+    LOGGER.debug(String
+        .format("%s handled request %s on shard %s. Waited %s ms, took %s ms, depth is %s.",
+            this, queuedRequest.request(), shard, waitTime, serviceTime, currentDepth));
+
+    final QueueStatistics statistics = queueStatistics;
+    if (statistics != null) {
+      statistics.requestHandled(name, shard, currentDepth, waitTime, serviceTime);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("name", name).add("shards", shards.size())
+        .add("depth", depth()).toString();
+  }
+
+  static class QueuedRequest<T> {
+
+    private final T request;
+    private final long enqueued;
+
+    private QueuedRequest(T request, long enqueued) {
+      this.request = request;
+      this.enqueued = enqueued;
+    }
+
+    T request() {
+      return request;
+    }
+
+    long enqueued() {
+      return enqueued;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014-2018 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.messaging;
+
+import io.github.cloudiator.deployment.scheduler.messaging.RequestQueue.QueuedRequest;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consumes a single shard of a {@link RequestQueue}.
+ */
+public class RequestWorker<T> implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestWorker.class);
+
+  private final RequestQueue<T> requestQueue;
+  private final int shard;
+  private final Consumer<T> handler;
+
+  RequestWorker(RequestQueue<T> requestQueue, int shard, Consumer<T> handler) {
+    this.requestQueue = requestQueue;
+    this.shard = shard;
+    this.handler = handler;
+  }
+
+  @Override
+  public void run() {
+
+    while (!Thread.currentThread().isInterrupted()) {
+
+      final QueuedRequest<T> queuedRequest;
+      try {
+        queuedRequest = requestQueue.take(shard);
+      } catch (InterruptedException e) {
+        LOGGER.info(String.format("Worker for shard %s of %s was interrupted. Stopping.", shard,
+            requestQueue));
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      final long start = System.nanoTime();
+      try {
+        handler.accept(queuedRequest.request());
+      } catch (Exception e) {
+        LOGGER.error(String
+            .format("Unexpected exception while handling request %s of %s.",
+                queuedRequest.request(), requestQueue), e);
+      } finally {
+        requestQueue.handled(shard, queuedRequest, start, System.nanoTime());
+      }
+    }
+  }
+}
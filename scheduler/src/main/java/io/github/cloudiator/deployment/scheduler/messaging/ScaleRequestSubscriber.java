@@ -4,14 +4,14 @@ import com.google.inject.Inject;
 import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.domain.Task;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.scheduler.scaling.ScalingEngine;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.Process.ScaleResponse;
 import org.cloudiator.messaging.MessageInterface;
@@ -34,9 +34,9 @@ public class ScaleRequestSubscriber implements Runnable {
   private final ScalingEngine scalingEngine;
 
   private final ScheduleDomainRepository scheduleDomainRepository;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
 
-  private final NodeMessageRepository nodeMessageRepository;
+  private final NodeRepository nodeMessageRepository;
 
   private static final NodeToNodeMessageConverter NODE_MESSAGE_CONVERTER = NodeToNodeMessageConverter.INSTANCE;
 
@@ -45,9 +45,9 @@ public class ScaleRequestSubscriber implements Runnable {
       ProcessService processService,
       MessageInterface messageInterface,
       ScheduleDomainRepository scheduleDomainRepository,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       ScalingEngine scalingEngine,
-      NodeMessageRepository nodeMessageRepository) {
+      NodeRepository nodeMessageRepository) {
     this.processService = processService;
     this.messageInterface = messageInterface;
     this.scheduleDomainRepository = scheduleDomainRepository;
@@ -100,9 +100,11 @@ public class ScaleRequestSubscriber implements Runnable {
             Task task = job
                 .getTask(taskId).get();
 
+            final Map<String, Node> nodesById = nodeMessageRepository
+                .getByIds(userId, content.getNodeCluster().getNodesList());
             List<Node> nodes = new ArrayList<>(content.getNodeCluster().getNodesCount());
             for (String nodeId : content.getNodeCluster().getNodesList()) {
-              final Node byId = nodeMessageRepository.getById(userId, nodeId);
+              final Node byId = nodesById.get(nodeId);
               if (byId == null) {
                 messageInterface.reply(ScaleResponse.class, id, Error.newBuilder().setCode(404)
                     .setMessage(String.format("Node with id %s does not exist.", nodeId))
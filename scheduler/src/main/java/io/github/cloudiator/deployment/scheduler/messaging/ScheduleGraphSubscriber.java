@@ -25,7 +25,7 @@ import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.graph.Graphs;
 import io.github.cloudiator.deployment.graph.ScheduleGraph;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import org.cloudiator.messages.General.Error;
@@ -42,14 +42,14 @@ public class ScheduleGraphSubscriber implements Runnable {
 
   private final MessageInterface messageInterface;
   private final ScheduleDomainRepository scheduleDomainRepository;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final NodeMessageRepository nodeMessageRepository;
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
   @Inject
   public ScheduleGraphSubscriber(MessageInterface messageInterface,
       ScheduleDomainRepository scheduleDomainRepository,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       NodeMessageRepository nodeMessageRepository) {
     this.messageInterface = messageInterface;
     this.scheduleDomainRepository = scheduleDomainRepository;
@@ -21,6 +21,7 @@ import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.messaging.ScheduleConverter;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -38,6 +39,7 @@ public class ScheduleQuerySubscriber implements Runnable {
   private final ScheduleDomainRepository scheduleDomainRepository;
   private final ProcessService processService;
   private final MessageInterface messageInterface;
+  private final WriteBehindStateStore stateStore;
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ScheduleQuerySubscriber.class);
   private static final ScheduleConverter SCHEDULE_CONVERTER = ScheduleConverter.INSTANCE;
@@ -45,10 +47,12 @@ public class ScheduleQuerySubscriber implements Runnable {
   @Inject
   public ScheduleQuerySubscriber(
       ScheduleDomainRepository scheduleDomainRepository,
-      ProcessService processService, MessageInterface messageInterface) {
+      ProcessService processService, MessageInterface messageInterface,
+      WriteBehindStateStore stateStore) {
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.processService = processService;
     this.messageInterface = messageInterface;
+    this.stateStore = stateStore;
   }
 
   @Override
@@ -70,12 +74,13 @@ public class ScheduleQuerySubscriber implements Runnable {
               content.getScheduleId());
           if (byUserAndId != null) {
             builder.addSchedules(SCHEDULE_CONVERTER
-                .applyBack(byUserAndId));
+                .applyBack(stateStore.current(byUserAndId)));
           }
         } else {
           builder
               .addAllSchedules(
-                  findByUser(content.getUserId()).stream().map(SCHEDULE_CONVERTER::applyBack)
+                  findByUser(content.getUserId()).stream().map(stateStore::current)
+                      .map(SCHEDULE_CONVERTER::applyBack)
                       .collect(
                           Collectors.toSet()));
         }
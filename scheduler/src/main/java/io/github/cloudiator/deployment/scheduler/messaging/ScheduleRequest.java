@@ -16,6 +16,7 @@
 
 package io.github.cloudiator.deployment.scheduler.messaging;
 
+import com.google.common.base.MoreObjects;
 import org.cloudiator.messages.Process.CreateScheduleRequest;
 
 public class ScheduleRequest {
@@ -40,4 +41,9 @@ public class ScheduleRequest {
   public CreateScheduleRequest getCreateScheduleRequest() {
     return createScheduleRequest;
   }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("id", id).toString();
+  }
 }
@@ -24,7 +24,7 @@ import io.github.cloudiator.deployment.domain.Schedule.Instantiation;
 import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
 import io.github.cloudiator.deployment.domain.ScheduleImpl;
 import io.github.cloudiator.deployment.messaging.InstantiationConverter;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
 import io.github.cloudiator.deployment.messaging.ScheduleConverter;
 import io.github.cloudiator.deployment.scheduler.ScheduleStateMachine;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
@@ -40,7 +40,7 @@ import org.slf4j.LoggerFactory;
 public class ScheduleRequestSubscriber implements Runnable {
 
   private final ProcessService processService;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final MessageInterface messageInterface;
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ScheduleRequestSubscriber.class);
@@ -48,19 +48,22 @@ public class ScheduleRequestSubscriber implements Runnable {
 
   private static final ScheduleConverter SCHEDULE_CONVERTER = ScheduleConverter.INSTANCE;
   private final ScheduleDomainRepository scheduleDomainRepository;
+  private final ScheduleRequestQueue scheduleRequestQueue;
 
 
   @Inject
   public ScheduleRequestSubscriber(ProcessService processService,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       MessageInterface messageInterface,
       ScheduleStateMachine scheduleStateMachine,
-      ScheduleDomainRepository scheduleDomainRepository) {
+      ScheduleDomainRepository scheduleDomainRepository,
+      ScheduleRequestQueue scheduleRequestQueue) {
     this.processService = processService;
     this.jobMessageRepository = jobMessageRepository;
     this.messageInterface = messageInterface;
     this.scheduleStateMachine = scheduleStateMachine;
     this.scheduleDomainRepository = scheduleDomainRepository;
+    this.scheduleRequestQueue = scheduleRequestQueue;
   }
 
   @Transactional
@@ -70,63 +73,74 @@ public class ScheduleRequestSubscriber implements Runnable {
 
   @Override
   public void run() {
+    scheduleRequestQueue.start(this::handle);
     processService.subscribeSchedule(new MessageCallback<CreateScheduleRequest>() {
       @Override
       public void accept(String id, CreateScheduleRequest content) {
 
-        try {
-
-          final String jobId = content.getSchedule().getJob();
-
-          final Instantiation instantiation = InstantiationConverter.INSTANCE
-              .apply(content.getSchedule().getInstantiation());
-          final String userId = content.getUserId();
-
-          LOGGER.info(String.format(
-              "%s is receiving a new schedule request for job %s by user %s. Instantiation will be %s",
-              this, jobId, userId, instantiation));
-
-          //retrieve the job
-          Job job = jobMessageRepository.getById(userId, jobId);
-          if (job == null) {
-            messageInterface.reply(ScheduleCreatedResponse.class, id,
-                Error.newBuilder().setCode(404).setMessage("Could not find job with id " + jobId)
-                    .build());
-            return;
-          }
-
-          Schedule schedule = ScheduleImpl.init(job, instantiation);
-
-          //persist the schedule
-          persistSchedule(schedule);
-
-          switch (schedule.instantiation()) {
-            case MANUAL:
-              schedule = scheduleStateMachine.apply(schedule, ScheduleState.MANUAL, null);
-              break;
-            case AUTOMATIC:
-              schedule = scheduleStateMachine.apply(schedule, ScheduleState.RUNNING, null);
-              break;
-            default:
-              throw new AssertionError("Unknown instantiation type " + schedule.instantiation());
-          }
-
-          messageInterface.reply(id,
-              ScheduleCreatedResponse.newBuilder()
-                  .setSchedule(SCHEDULE_CONVERTER.applyBack(schedule))
-                  .build());
-
-        } catch (Exception e) {
-          LOGGER.error("Unexpected exception while processing schedule request.", e);
-          messageInterface.reply(ScheduleCreatedResponse.class, id, Error.newBuilder().setCode(500)
-              .setMessage(
-                  String.format("Unexpected exception while processing schedule request: %s",
-                      e.getMessage()))
+        if (!scheduleRequestQueue.offer(ScheduleRequest.of(id, content))) {
+          messageInterface.reply(ScheduleCreatedResponse.class, id, Error.newBuilder().setCode(503)
+              .setMessage("Scheduler is overloaded, rejecting schedule request.")
               .build());
         }
+      }
+    });
+  }
+
+  private void handle(ScheduleRequest scheduleRequest) {
+
+    final String id = scheduleRequest.getId();
+    final CreateScheduleRequest content = scheduleRequest.getCreateScheduleRequest();
+
+    try {
+
+      final String jobId = content.getSchedule().getJob();
+
+      final Instantiation instantiation = InstantiationConverter.INSTANCE
+          .apply(content.getSchedule().getInstantiation());
+      final String userId = content.getUserId();
 
+      LOGGER.info(String.format(
+          "%s is receiving a new schedule request for job %s by user %s. Instantiation will be %s",
+          this, jobId, userId, instantiation));
 
+      //retrieve the job
+      Job job = jobMessageRepository.getById(userId, jobId);
+      if (job == null) {
+        messageInterface.reply(ScheduleCreatedResponse.class, id,
+            Error.newBuilder().setCode(404).setMessage("Could not find job with id " + jobId)
+                .build());
+        return;
       }
-    });
+
+      Schedule schedule = ScheduleImpl.init(job, instantiation);
+
+      //persist the schedule
+      persistSchedule(schedule);
+
+      switch (schedule.instantiation()) {
+        case MANUAL:
+          schedule = scheduleStateMachine.apply(schedule, ScheduleState.MANUAL, null);
+          break;
+        case AUTOMATIC:
+          schedule = scheduleStateMachine.apply(schedule, ScheduleState.RUNNING, null);
+          break;
+        default:
+          throw new AssertionError("Unknown instantiation type " + schedule.instantiation());
+      }
+
+      messageInterface.reply(id,
+          ScheduleCreatedResponse.newBuilder()
+              .setSchedule(SCHEDULE_CONVERTER.applyBack(schedule))
+              .build());
+
+    } catch (Exception e) {
+      LOGGER.error("Unexpected exception while processing schedule request.", e);
+      messageInterface.reply(ScheduleCreatedResponse.class, id, Error.newBuilder().setCode(500)
+          .setMessage(
+              String.format("Unexpected exception while processing schedule request: %s",
+                  e.getMessage()))
+          .build());
+    }
   }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.persistance;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.cloudiator.messages.entities.ProcessEntities.Process;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append only journal of the state changes buffered by the {@link WriteBehindStateStore}.
+ * <p>
+ * The journal is split into numbered segments, every record is forced to disk before the append
+ * returns. A segment is deleted once its records were written to the database. This class is not
+ * thread safe, access is guarded by the store.
+ */
+class StateJournal {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StateJournal.class);
+
+  private static final byte PROCESS = 1;
+  private static final byte PROCESS_DELETED = 2;
+  private static final byte SCHEDULE_STATE = 3;
+  private static final byte SCHEDULE_DELETED = 4;
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  interface RecordVisitor {
+
+    void process(Process process);
+
+    void processDeleted(String processId);
+
+    void scheduleState(String scheduleId, String userId, String state);
+
+    void scheduleDeleted(String scheduleId);
+  }
+
+  private final Path directory;
+  private long sequence;
+  @Nullable
+  private Path segment;
+  @Nullable
+  private FileOutputStream fileOutputStream;
+  @Nullable
+  private DataOutputStream out;
+
+  StateJournal(Path directory) throws IOException {
+    this.directory = directory;
+    Files.createDirectories(directory);
+    this.sequence = segments().stream().mapToLong(StateJournal::sequenceOf).max().orElse(0);
+  }
+
+  /**
+   * @return the existing segments, oldest first
+   */
+  List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(StateJournal::isSegment)
+          .sorted(Comparator.comparingLong(StateJournal::sequenceOf))
+          .collect(Collectors.toList());
+    }
+  }
+
+  void appendProcess(Process process) throws IOException {
+    final DataOutputStream stream = stream();
+    stream.writeByte(PROCESS);
+    process.writeDelimitedTo(stream);
+    force();
+  }
+
+  void appendProcessDeleted(String processId) throws IOException {
+    final DataOutputStream stream = stream();
+    stream.writeByte(PROCESS_DELETED);
+    stream.writeUTF(processId);
+    force();
+  }
+
+  void appendScheduleState(String scheduleId, String userId, String state) throws IOException {
+    final DataOutputStream stream = stream();
+    stream.writeByte(SCHEDULE_STATE);
+    stream.writeUTF(scheduleId);
+    stream.writeUTF(userId);
+    stream.writeUTF(state);
+    force();
+  }
+
+  void appendScheduleDeleted(String scheduleId) throws IOException {
+    final DataOutputStream stream = stream();
+    stream.writeByte(SCHEDULE_DELETED);
+    stream.writeUTF(scheduleId);
+    force();
+  }
+
+  /**
+   * Closes the current segment, the next append starts a new one.
+   *
+   * @return the closed segment or null if nothing was appended since the last rotation
+   */
+  @Nullable
+  Path rotate() throws IOException {
+    if (out == null) {
+      return null;
+    }
+    out.close();
+    final Path closed = segment;
+    out = null;
+    fileOutputStream = null;
+    segment = null;
+    return closed;
+  }
+
+  /**
+   * Reads all records of the segment. A truncated last record, e.g. after a crash during an
+   * append, ends the replay of the segment.
+   *
+   * @throws IOException if the segment can not be read or is corrupted
+   */
+  static void replay(Path segment, RecordVisitor visitor) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(segment)))) {
+      int type;
+      while ((type = in.read()) != -1) {
+        switch (type) {
+          case PROCESS:
+            final Process process;
+            try {
+              process = Process.parseDelimitedFrom(in);
+            } catch (InvalidProtocolBufferException e) {
+              //a message cut off by the end of the segment is a truncated record, anything else
+              //is corruption
+              if (in.read() == -1) {
+                throw new EOFException();
+              }
+              throw e;
+            }
+            if (process == null) {
+              throw new EOFException();
+            }
+            visitor.process(process);
+            break;
+          case PROCESS_DELETED:
+            visitor.processDeleted(in.readUTF());
+            break;
+          case SCHEDULE_STATE:
+            visitor.scheduleState(in.readUTF(), in.readUTF(), in.readUTF());
+            break;
+          case SCHEDULE_DELETED:
+            visitor.scheduleDeleted(in.readUTF());
+            break;
+          default:
+            throw new IOException(
+                String.format("Unknown record type %s in journal segment %s.", type, segment));
+        }
+      }
+    } catch (EOFException e) {
+      LOGGER.warn(String
+          .format("Journal segment %s ends with a truncated record. Ignoring the record.",
+              segment));
+    }
+  }
+
+  private DataOutputStream stream() throws IOException {
+    if (out == null) {
+      segment = directory.resolve(SEGMENT_PREFIX + (++sequence) + SEGMENT_SUFFIX);
+      fileOutputStream = new FileOutputStream(segment.toFile());
+      out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+    }
+    return out;
+  }
+
+  private void force() throws IOException {
+    //noinspection ConstantConditions
+    out.flush();
+    //noinspection ConstantConditions
+    fileOutputStream.getChannel().force(false);
+  }
+
+  private static boolean isSegment(Path path) {
+    final String name = path.getFileName().toString();
+    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+  }
+
+  private static long sequenceOf(Path path) {
+    final String name = path.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
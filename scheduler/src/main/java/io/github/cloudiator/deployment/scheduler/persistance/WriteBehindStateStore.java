@@ -0,0 +1,486 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.persistance;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.util.execution.Schedulable;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.domain.Schedule;
+import io.github.cloudiator.deployment.domain.Schedule.ScheduleState;
+import io.github.cloudiator.deployment.domain.ScheduleImpl;
+import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import io.github.cloudiator.persistance.ProcessDomainRepository;
+import io.github.cloudiator.persistance.ScheduleDomainRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import org.cloudiator.messages.entities.ProcessEntities.Process;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional write-behind buffer for the state changes of the process and schedule state machines.
+ * <p>
+ * If enabled, a state change is appended to a local journal and kept in memory instead of being
+ * written to the database. Changes of the same process or schedule are coalesced, only the latest
+ * one is written when the buffer is flushed, which happens periodically with one transaction for
+ * all buffered changes. The buffered changes are the authoritative view until they are flushed,
+ * use {@link #current(CloudiatorProcess)} and {@link #current(Schedule)} to apply them to objects
+ * read from the database, or {@link #flush()} the buffer before reading from the database directly.
+ * All deletions have to pass through {@link #delete(CloudiatorProcess)} or {@link
+ * #delete(Schedule)}, so that deleted processes are not written again. On startup the remaining
+ * journal is replayed, so no buffered change is lost if the scheduler stops in between.
+ * <p>
+ * If a flush fails, its changes are written one by one. Changes that still fail, e.g. of a
+ * process whose schedule was deleted meanwhile, are dropped so they do not block all later changes.
+ * If every change fails, the database is assumed to be unavailable and the flush is retried.
+ * <p>
+ * If disabled, {@link #current(CloudiatorProcess)} and {@link #current(Schedule)} return their
+ * argument and the callers are expected to write to the database themselves.
+ */
+@Singleton
+public class WriteBehindStateStore implements Schedulable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindStateStore.class);
+  private static final ProcessMessageConverter PROCESS_MESSAGE_CONVERTER = ProcessMessageConverter.INSTANCE;
+
+  private final ProcessDomainRepository processDomainRepository;
+  private final ScheduleDomainRepository scheduleDomainRepository;
+  private final boolean enabled;
+  private final long interval;
+  @Nullable
+  private final StateJournal journal;
+
+  /**
+   * guarded by this
+   */
+  private final Map<String, CloudiatorProcess> pendingProcesses = new HashMap<>();
+  private final Map<String, ScheduleStateChange> pendingSchedules = new HashMap<>();
+
+  /**
+   * recently deleted schedules, late state changes of their processes are ignored
+   */
+  private final Cache<String, Boolean> deletedSchedules = CacheBuilder.newBuilder()
+      .expireAfterWrite(1, TimeUnit.HOURS).build();
+
+  /**
+   * closed journal segments whose changes are not yet written, guarded by the flush lock
+   */
+  private final List<Path> unflushedSegments = new ArrayList<>();
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  static class ScheduleStateChange {
+
+    private final String scheduleId;
+    private final String userId;
+    private final ScheduleState state;
+
+    private ScheduleStateChange(String scheduleId, String userId, ScheduleState state) {
+      this.scheduleId = scheduleId;
+      this.userId = userId;
+      this.state = state;
+    }
+  }
+
+  @Inject
+  public WriteBehindStateStore(ProcessDomainRepository processDomainRepository,
+      ScheduleDomainRepository scheduleDomainRepository,
+      @Named(SchedulerConstants.WRITE_BEHIND_ENABLED) boolean enabled,
+      @Named(SchedulerConstants.WRITE_BEHIND_INTERVAL) long interval,
+      @Named(SchedulerConstants.WRITE_BEHIND_DIRECTORY) String directory) {
+    this.processDomainRepository = processDomainRepository;
+    this.scheduleDomainRepository = scheduleDomainRepository;
+    this.enabled = enabled;
+    this.interval = interval;
+
+    if (enabled) {
+      try {
+        this.journal = new StateJournal(Paths.get(directory));
+        replay();
+      } catch (IOException e) {
+        throw new IllegalStateException(
+            String.format("Could not open the state journal in %s.", directory), e);
+      }
+    } else {
+      this.journal = null;
+    }
+  }
+
+  private void replay() throws IOException {
+
+    //noinspection ConstantConditions
+    for (Path segment : journal.segments()) {
+      StateJournal.replay(segment, new StateJournal.RecordVisitor() {
+        @Override
+        public void process(Process process) {
+          pendingProcesses.put(process.getId(), PROCESS_MESSAGE_CONVERTER.apply(process));
+        }
+
+        @Override
+        public void processDeleted(String processId) {
+          pendingProcesses.remove(processId);
+        }
+
+        @Override
+        public void scheduleState(String scheduleId, String userId, String state) {
+          pendingSchedules.put(scheduleId,
+              new ScheduleStateChange(scheduleId, userId, ScheduleState.valueOf(state)));
+        }
+
+        @Override
+        public void scheduleDeleted(String scheduleId) {
+          dropSchedule(scheduleId);
+        }
+      });
+      unflushedSegments.add(segment);
+    }
+
+    if (!unflushedSegments.isEmpty()) {
+      LOGGER.info(String.format(
+          "%s replayed %s journal segments, %s process and %s schedule changes are pending.",
+          this, unflushedSegments.size(), pendingProcesses.size(), pendingSchedules.size()));
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Buffers the process.
+   *
+   * @param process the process to save
+   * @return the process
+   * @throws IllegalStateException if the store is disabled or the journal can not be written
+   */
+  public CloudiatorProcess save(CloudiatorProcess process) {
+    checkState(enabled, "Write-behind is disabled.");
+
+    synchronized (this) {
+      if (deletedSchedules.getIfPresent(process.scheduleId()) != null) {
+        LOGGER.debug(String
+            .format("%s is ignoring the change of process %s of deleted schedule %s.", this,
+                process.id(), process.scheduleId()));
+        return process;
+      }
+      try {
+        //noinspection ConstantConditions
+        journal.appendProcess(PROCESS_MESSAGE_CONVERTER.applyBack(process));
+      } catch (IOException e) {
+        throw new IllegalStateException(
+            String.format("Could not journal the state change of process %s.", process.id()), e);
+      }
+      pendingProcesses.put(process.id(), process);
+    }
+    return process;
+  }
+
+  /**
+   * Buffers the state of the schedule, all other fields of the schedule are not changed by the
+   * state machine and are therefore not written.
+   *
+   * @param schedule the schedule to save
+   * @return the schedule
+   * @throws IllegalStateException if the store is disabled or the journal can not be written
+   */
+  public Schedule save(Schedule schedule) {
+    checkState(enabled, "Write-behind is disabled.");
+
+    synchronized (this) {
+      try {
+        //noinspection ConstantConditions
+        journal.appendScheduleState(schedule.id(), schedule.userId(), schedule.state().name());
+      } catch (IOException e) {
+        throw new IllegalStateException(
+            String.format("Could not journal the state change of schedule %s.", schedule.id()),
+            e);
+      }
+      pendingSchedules.put(schedule.id(),
+          new ScheduleStateChange(schedule.id(), schedule.userId(), schedule.state()));
+    }
+    return schedule;
+  }
+
+  /**
+   * Drops the buffered changes of a process that is about to be deleted from the database. Waits
+   * for a running flush, so the process is not written again after it was deleted.
+   *
+   * @param process the deleted process
+   */
+  public void delete(CloudiatorProcess process) {
+    if (!enabled) {
+      return;
+    }
+
+    flushLock.lock();
+    try {
+      synchronized (this) {
+        if (pendingProcesses.remove(process.id()) != null) {
+          try {
+            //noinspection ConstantConditions
+            journal.appendProcessDeleted(process.id());
+          } catch (IOException e) {
+            throw new IllegalStateException(
+                String.format("Could not journal the deletion of process %s.", process.id()), e);
+          }
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Drops the buffered changes of a schedule and of all its processes, as the schedule is about to
+   * be deleted from the database. Waits for a running flush, so nothing of the schedule is written
+   * again after it was deleted.
+   *
+   * @param schedule the deleted schedule
+   */
+  public void delete(Schedule schedule) {
+    if (!enabled) {
+      return;
+    }
+
+    flushLock.lock();
+    try {
+      synchronized (this) {
+        try {
+          //always journaled, so the replay ignores late changes of the schedule as well
+          //noinspection ConstantConditions
+          journal.appendScheduleDeleted(schedule.id());
+        } catch (IOException e) {
+          throw new IllegalStateException(
+              String.format("Could not journal the deletion of schedule %s.", schedule.id()), e);
+        }
+        dropSchedule(schedule.id());
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * guarded by this
+   */
+  private void dropSchedule(String scheduleId) {
+    deletedSchedules.put(scheduleId, true);
+    pendingSchedules.remove(scheduleId);
+    pendingProcesses.values().removeIf(process -> process.scheduleId().equals(scheduleId));
+  }
+
+  /**
+   * @param process a process, e.g. read from the database
+   * @return the buffered version of the process if one exists, the process otherwise
+   */
+  public CloudiatorProcess current(CloudiatorProcess process) {
+    if (!enabled) {
+      return process;
+    }
+    synchronized (this) {
+      return pendingProcesses.getOrDefault(process.id(), process);
+    }
+  }
+
+  /**
+   * @param schedule a schedule, e.g. read from the database
+   * @return a copy of the schedule with the buffered changes of the schedule and its processes
+   * applied, or the schedule if nothing is buffered for it
+   */
+  public Schedule current(Schedule schedule) {
+    if (!enabled) {
+      return schedule;
+    }
+
+    final ScheduleStateChange stateChange;
+    final List<CloudiatorProcess> processes = new ArrayList<>(schedule.processes().size());
+    boolean changed;
+    synchronized (this) {
+      stateChange = pendingSchedules.get(schedule.id());
+      changed = stateChange != null;
+      for (CloudiatorProcess process : schedule.processes()) {
+        final CloudiatorProcess pending = pendingProcesses.get(process.id());
+        changed |= pending != null;
+        processes.add(pending != null ? pending : process);
+      }
+    }
+
+    if (!changed) {
+      return schedule;
+    }
+
+    final Schedule current = ScheduleImpl.of(schedule.id(), schedule.userId(), schedule.job(),
+        schedule.instantiation(), stateChange != null ? stateChange.state : schedule.state());
+    current.addProcesses(processes);
+    return current;
+  }
+
+  /**
+   * Writes all buffered changes in one transaction. The changes stay buffered until the
+   * transaction is committed, if writing fails they are retried with the next flush.
+   */
+  public void flush() {
+    if (!enabled) {
+      return;
+    }
+
+    flushLock.lock();
+    try {
+
+      final Map<String, CloudiatorProcess> processes;
+      final Map<String, ScheduleStateChange> schedules;
+      synchronized (this) {
+        //noinspection ConstantConditions
+        final Path segment = journal.rotate();
+        if (segment != null) {
+          unflushedSegments.add(segment);
+        }
+        //the pending changes stay visible to current() until they are committed
+        processes = new HashMap<>(pendingProcesses);
+        schedules = new HashMap<>(pendingSchedules);
+      }
+
+      if (!processes.isEmpty() || !schedules.isEmpty()) {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+          persist(processes.values(), schedules.values());
+        } catch (Exception e) {
+          LOGGER.warn(String.format(
+              "%s could not write %s process and %s schedule changes at once. Writing them one by one.",
+              this, processes.size(), schedules.size()), e);
+          if (!persistEach(processes, schedules)) {
+            LOGGER.error(String
+                .format("%s could not write any of the changes. Retrying later.", this), e);
+            return;
+          }
+        }
+        synchronized (this) {
+          //changes replaced during the write are journaled in the new segment and stay pending
+          processes.forEach(pendingProcesses::remove);
+          schedules.forEach(pendingSchedules::remove);
+        }
+        LOGGER.debug(String.format("%s wrote %s process and %s schedule changes in %s.", this,
+            processes.size(), schedules.size(), stopwatch.stop()));
+      }
+
+      for (Path segment : unflushedSegments) {
+        try {
+          Files.deleteIfExists(segment);
+        } catch (IOException e) {
+          LOGGER.warn(String.format("%s could not delete journal segment %s.", this, segment), e);
+        }
+      }
+      unflushedSegments.clear();
+
+    } catch (IOException e) {
+      LOGGER.error(String.format("%s could not rotate the state journal.", this), e);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  @Transactional
+  void persist(Collection<CloudiatorProcess> processes,
+      Collection<ScheduleStateChange> schedules) {
+
+    //schedules first, new processes need their schedule
+    for (Map.Entry<String, List<ScheduleStateChange>> entry : schedules.stream()
+        .collect(Collectors.groupingBy(change -> change.userId)).entrySet()) {
+      scheduleDomainRepository.updateStates(entry.getValue().stream().collect(
+          Collectors.toMap(change -> change.scheduleId, change -> change.state)),
+          entry.getKey());
+    }
+
+    processDomainRepository.saveAll(processes);
+  }
+
+  /**
+   * Writes every change in its own transaction.
+   *
+   * @return false if no change could be written
+   */
+  private boolean persistEach(Map<String, CloudiatorProcess> processes,
+      Map<String, ScheduleStateChange> schedules) {
+
+    int written = 0;
+    for (ScheduleStateChange change : schedules.values()) {
+      try {
+        persist(Collections.emptyList(), Collections.singletonList(change));
+        written++;
+      } catch (Exception e) {
+        LOGGER.error(String
+            .format("%s could not write the state of schedule %s. Dropping the change.", this,
+                change.scheduleId), e);
+      }
+    }
+    for (CloudiatorProcess process : processes.values()) {
+      try {
+        persist(Collections.singletonList(process), Collections.emptyList());
+        written++;
+      } catch (Exception e) {
+        LOGGER.error(String
+            .format("%s could not write process %s. Dropping the change.", this, process.id()), e);
+      }
+    }
+    return written > 0;
+  }
+
+  @Override
+  public long period() {
+    return interval;
+  }
+
+  @Override
+  public long delay() {
+    return interval;
+  }
+
+  @Override
+  public TimeUnit timeUnit() {
+    return TimeUnit.MILLISECONDS;
+  }
+
+  @Override
+  public void run() {
+    try {
+      flush();
+    } catch (Exception e) {
+      LOGGER.error("Unexpected exception while flushing buffered state changes.", e);
+    }
+  }
+}
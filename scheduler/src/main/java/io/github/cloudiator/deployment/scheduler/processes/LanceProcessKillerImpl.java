@@ -26,6 +26,7 @@ import io.github.cloudiator.deployment.domain.CloudiatorProcess.Type;
 import io.github.cloudiator.deployment.domain.CloudiatorSingleProcess;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.scheduler.exceptions.ProcessDeletionException;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
@@ -46,14 +47,17 @@ public class LanceProcessKillerImpl implements ProcessKiller {
   private final NodeMessageRepository nodeMessageRepository;
   private static final NodeToNodeMessageConverter NODE_MESSAGE_CONVERTER = NodeToNodeMessageConverter.INSTANCE;
   private final ScheduleDomainRepository scheduleDomainRepository;
+  private final WriteBehindStateStore stateStore;
 
   @Inject
   public LanceProcessKillerImpl(ProcessService processService,
       NodeMessageRepository nodeMessageRepository,
-      ScheduleDomainRepository scheduleDomainRepository) {
+      ScheduleDomainRepository scheduleDomainRepository,
+      WriteBehindStateStore stateStore) {
     this.processService = processService;
     this.nodeMessageRepository = nodeMessageRepository;
     this.scheduleDomainRepository = scheduleDomainRepository;
+    this.stateStore = stateStore;
   }
 
   @Override
@@ -96,6 +100,7 @@ public class LanceProcessKillerImpl implements ProcessKiller {
           String.format("Can not delete process %s as originId is not set.", cloudiatorProcess));
     }
 
+    stateStore.flush();
     final Schedule schedule = findSchedule(cloudiatorProcess);
 
     checkState(schedule != null,
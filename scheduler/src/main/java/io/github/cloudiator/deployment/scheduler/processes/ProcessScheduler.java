@@ -16,11 +16,8 @@
 
 package io.github.cloudiator.deployment.scheduler.processes;
 
-import com.github.rholder.retry.RetryException;
-import com.github.rholder.retry.Retryer;
-import com.github.rholder.retry.RetryerBuilder;
-import com.github.rholder.retry.StopStrategies;
-import com.github.rholder.retry.WaitStrategies;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import io.github.cloudiator.deployment.domain.CloudiatorClusterProcess;
@@ -35,19 +32,25 @@ import io.github.cloudiator.deployment.domain.Job;
 import io.github.cloudiator.deployment.domain.Schedule;
 import io.github.cloudiator.deployment.domain.Task;
 import io.github.cloudiator.deployment.domain.TaskInterface;
-import io.github.cloudiator.deployment.messaging.JobMessageRepository;
+import io.github.cloudiator.deployment.messaging.MessageRepository;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
 import io.github.cloudiator.deployment.scheduler.instantiation.TaskInterfaceSelection;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeReadinessRegistry;
 import io.github.cloudiator.deployment.scheduler.messaging.ProcessRequestSubscriber;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.domain.NodeState;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import javax.inject.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,20 +59,26 @@ public class ProcessScheduler {
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ProcessRequestSubscriber.class);
   private final ScheduleDomainRepository scheduleDomainRepository;
-  private final JobMessageRepository jobMessageRepository;
+  private final MessageRepository<Job> jobMessageRepository;
   private final ProcessSpawner processSpawner;
-  private final NodeMessageRepository nodeMessageRepository;
+  private final NodeReadinessRegistry nodeReadinessRegistry;
+  private final WriteBehindStateStore stateStore;
+  private final long readinessTimeout;
 
   @Inject
   public ProcessScheduler(
       ScheduleDomainRepository scheduleDomainRepository,
-      JobMessageRepository jobMessageRepository,
+      MessageRepository<Job> jobMessageRepository,
       ProcessSpawner processSpawner,
-      NodeMessageRepository nodeMessageRepository) {
+      NodeReadinessRegistry nodeReadinessRegistry,
+      WriteBehindStateStore stateStore,
+      @Named(SchedulerConstants.PROCESS_READINESS_TIMEOUT) long readinessTimeout) {
     this.scheduleDomainRepository = scheduleDomainRepository;
     this.jobMessageRepository = jobMessageRepository;
     this.processSpawner = processSpawner;
-    this.nodeMessageRepository = nodeMessageRepository;
+    this.nodeReadinessRegistry = nodeReadinessRegistry;
+    this.stateStore = stateStore;
+    this.readinessTimeout = readinessTimeout;
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -88,6 +97,8 @@ public class ProcessScheduler {
     }
 
     LOGGER.debug(String.format("Retrieving schedule for process %s.", cloudiatorProcess));
+    //the schedule is read from the database, it has to include all buffered processes
+    stateStore.flush();
     final Schedule schedule = retrieveSchedule(cloudiatorProcess.scheduleId(),
         cloudiatorProcess.userId());
 
@@ -124,8 +135,8 @@ public class ProcessScheduler {
 
     if (cloudiatorProcess instanceof CloudiatorSingleProcess) {
 
-      final Node node = getNode(cloudiatorProcess.userId(),
-          ((CloudiatorSingleProcess) cloudiatorProcess).node());
+      final Node node = getNodes(cloudiatorProcess.userId(), Collections
+          .singleton(((CloudiatorSingleProcess) cloudiatorProcess).node())).iterator().next();
 
       if (!node.state().equals(NodeState.RUNNING)) {
         throw new ProcessSpawningException(
@@ -147,8 +158,7 @@ public class ProcessScheduler {
 
     } else if (cloudiatorProcess instanceof CloudiatorClusterProcess) {
 
-      final Set<Node> nodeSet = cloudiatorProcess.nodes().stream().map(
-          s -> getNode(cloudiatorProcess.userId(), s)).collect(Collectors.toSet());
+      final Set<Node> nodeSet = getNodes(cloudiatorProcess.userId(), cloudiatorProcess.nodes());
 
       for (Node node : nodeSet) {
         if (!node.state().equals(NodeState.RUNNING)) {
@@ -176,23 +186,38 @@ public class ProcessScheduler {
 
   }
 
-  private Node getNode(String userId, String id) {
+  private Set<Node> getNodes(String userId, Set<String> ids) throws ProcessSpawningException {
 
-    final Retryer<Node> nodeRetryer = RetryerBuilder.<Node>newBuilder()
-        .withWaitStrategy(WaitStrategies.randomWait(30, TimeUnit.SECONDS)).retryIfResult(
-            Objects::isNull)
-        .retryIfResult(input -> input != null && input.state().equals(NodeState.PENDING))
-        .withStopStrategy(StopStrategies.stopAfterDelay(2, TimeUnit.MINUTES)).build();
+    final List<ListenableFuture<Node>> readiness = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      readiness.add(nodeReadinessRegistry.awaitReady(userId, id));
+    }
 
     try {
-      return nodeRetryer.call(() -> nodeMessageRepository.getById(userId, id));
+      return new HashSet<>(Futures.allAsList(readiness)
+          .get(readinessTimeout, TimeUnit.MILLISECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancel(readiness);
+      throw new ProcessSpawningException(
+          String.format("Interrupted while waiting for nodes %s.", ids), e);
     } catch (ExecutionException e) {
-      LOGGER.warn("Catching node with id %s failed.", e.getCause());
-    } catch (RetryException e) {
-      LOGGER.warn("Catching node with id %s failed.", e);
+      throw new ProcessSpawningException(
+          String.format("Error while waiting for nodes %s.", ids), e.getCause());
+    } catch (TimeoutException e) {
+      cancel(readiness);
+      throw new ProcessSpawningException(String
+          .format("Nodes %s did not become ready within %s ms.", ids, readinessTimeout), e);
     }
+  }
 
-    return nodeMessageRepository.getById(userId, id);
+  /**
+   * Stops waiting for the nodes, which removes the futures from the readiness registry.
+   */
+  private static void cancel(List<ListenableFuture<Node>> readiness) {
+    for (ListenableFuture<Node> future : readiness) {
+      future.cancel(false);
+    }
   }
 
 
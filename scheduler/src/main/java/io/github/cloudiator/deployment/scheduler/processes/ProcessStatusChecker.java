@@ -20,6 +20,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
+import io.github.cloudiator.domain.Node;
+import java.util.Collection;
 import java.util.Optional;
 import javax.annotation.Nullable;
 import org.cloudiator.messaging.ResponseException;
@@ -54,4 +56,16 @@ public interface ProcessStatusChecker {
 
   ProcessStatus checkState(CloudiatorProcess cloudiatorProcess) throws ResponseException;
 
+  /**
+   * Checks the state of a process whose nodes were already resolved by the caller.
+   *
+   * @param cloudiatorProcess the process to check
+   * @param nodes the nodes the process runs on
+   * @param timeout the timeout of the status query in milliseconds
+   * @return the remote status of the process
+   * @throws ResponseException if the status query fails or times out
+   */
+  ProcessStatus checkState(CloudiatorProcess cloudiatorProcess, Collection<Node> nodes,
+      long timeout) throws ResponseException;
+
 }
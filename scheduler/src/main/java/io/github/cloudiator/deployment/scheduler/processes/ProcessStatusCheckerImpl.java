@@ -16,16 +16,20 @@
 
 package io.github.cloudiator.deployment.scheduler.processes;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.base.Strings;
 import com.google.inject.Inject;
 import io.github.cloudiator.deployment.domain.CloudiatorClusterProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorSingleProcess;
 import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.cloudiator.messages.Process.ProcessStatusQuery;
@@ -40,62 +44,64 @@ import org.slf4j.LoggerFactory;
 public class ProcessStatusCheckerImpl implements ProcessStatusChecker {
 
 
-  private final NodeMessageRepository nodeMessageRepository;
+  private final NodeRepository nodeMessageRepository;
   private final ProcessService processService;
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ProcessStatusCheckerImpl.class);
 
   @Inject
   public ProcessStatusCheckerImpl(
-      NodeMessageRepository nodeMessageRepository,
+      NodeRepository nodeMessageRepository,
       ProcessService processService) {
     this.nodeMessageRepository = nodeMessageRepository;
     this.processService = processService;
   }
 
+  private static final long DEFAULT_TIMEOUT = 120000L;
+
   @Override
   public ProcessStatus checkState(CloudiatorProcess cloudiatorProcess) throws ResponseException {
 
-    final Builder builder = ProcessStatusQuery.newBuilder()
-        .setProcess(ProcessMessageConverter.INSTANCE.applyBack(cloudiatorProcess));
+    final Map<String, Node> byId = nodeMessageRepository
+        .getByIds(cloudiatorProcess.userId(), cloudiatorProcess.nodes());
 
-    if (cloudiatorProcess instanceof CloudiatorSingleProcess) {
-      final Node byId = nodeMessageRepository.getById(cloudiatorProcess.userId(),
-          ((CloudiatorSingleProcess) cloudiatorProcess).node());
-      if (byId == null) {
+    final Set<Node> nodes = new HashSet<>(cloudiatorProcess.nodes().size());
+    for (String node : cloudiatorProcess.nodes()) {
+      if (!byId.containsKey(node)) {
         throw new IllegalStateException(String.format("Node with id %s does not exist.",
-            ((CloudiatorSingleProcess) cloudiatorProcess).node()));
+            node));
       }
-      builder.setNode(NodeToNodeMessageConverter.INSTANCE.apply(byId));
-    } else if (cloudiatorProcess instanceof CloudiatorClusterProcess) {
+      nodes.add(byId.get(node));
+    }
 
-      final Set<Node> nodes = new HashSet<>(
-          cloudiatorProcess.nodes().size());
+    return checkState(cloudiatorProcess, nodes, DEFAULT_TIMEOUT);
+  }
 
-      for (String node : cloudiatorProcess.nodes()) {
-        final Node byId = nodeMessageRepository.getById(cloudiatorProcess.userId(), node);
-        if (byId == null) {
-          throw new IllegalStateException(String.format("Node with id %s does not exist.",
-              node));
-        }
-        nodes.add(byId);
-      }
+  @Override
+  public ProcessStatus checkState(CloudiatorProcess cloudiatorProcess, Collection<Node> nodes,
+      long timeout) throws ResponseException {
 
+    final Builder builder = ProcessStatusQuery.newBuilder()
+        .setProcess(ProcessMessageConverter.INSTANCE.applyBack(cloudiatorProcess));
+
+    if (cloudiatorProcess instanceof CloudiatorSingleProcess) {
+      checkArgument(nodes.size() == 1,
+          String.format("Expected exactly one node for process %s but got %s.",
+              cloudiatorProcess, nodes));
+      builder.setNode(NodeToNodeMessageConverter.INSTANCE.apply(nodes.iterator().next()));
+    } else if (cloudiatorProcess instanceof CloudiatorClusterProcess) {
       builder.setNodes(Nodes.newBuilder().addAllNodes(nodes.stream().map(
           NodeToNodeMessageConverter.INSTANCE).collect(
           Collectors.toSet())));
-
     } else {
       throw new AssertionError("Unknown process type " + cloudiatorProcess.getClass().getName());
     }
 
     final ProcessStatusResponse processStatusResponse = processService
-        .queryProcessStatus(builder.build(), 120000L);
+        .queryProcessStatus(builder.build(), timeout);
 
     final String information = Strings.emptyToNull(processStatusResponse.getInformation());
     return ProcessStatus.of(ProcessMessageConverter.PROCESS_STATE_CONVERTER
         .apply(processStatusResponse.getState()), information);
-
-
   }
 }
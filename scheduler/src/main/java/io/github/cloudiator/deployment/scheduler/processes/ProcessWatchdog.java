@@ -16,26 +16,64 @@
 
 package io.github.cloudiator.deployment.scheduler.processes;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
+import de.uniulm.omi.cloudiator.util.execution.LoggingThreadPoolExecutor;
 import de.uniulm.omi.cloudiator.util.execution.Schedulable;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.scheduler.ProcessStateMachine;
+import io.github.cloudiator.deployment.scheduler.config.SchedulerConstants;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
+import io.github.cloudiator.deployment.scheduler.persistance.WriteBehindStateStore;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessStatusChecker.ProcessStatus;
+import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Named;
 import org.cloudiator.messaging.ResponseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Periodically compares the local state of all running processes with their remote state.
+ * <p>
+ * Processes are grouped by the node(s) they run on. All nodes of a run are resolved up front, with
+ * at most one request per user, before any status query is issued. The status queries are issued
+ * concurrently, bounded by the configured parallelism, and the queries of one group are submitted
+ * back to back. This way the queries for one node reach the agent together and can be answered
+ * with a single connection to it. Every status query has its own deadline and queries that did not
+ * finish within the sweep timeout are cancelled, so a single run finishes in bounded time
+ * regardless of the number of processes.
+ */
 public class ProcessWatchdog implements Schedulable {
 
   private final ProcessDomainRepository processDomainRepository;
   private final ProcessStatusChecker processStatusChecker;
   private final ProcessStateMachine processStateMachine;
+  private final NodeRepository nodeMessageRepository;
+  private final WriteBehindStateStore stateStore;
+  private final LoggingThreadPoolExecutor executor;
+  private final long queryTimeout;
+  private final long sweepTimeout;
   private static final Logger LOGGER = LoggerFactory
       .getLogger(ProcessWatchdog.class);
 
@@ -43,10 +81,23 @@ public class ProcessWatchdog implements Schedulable {
   public ProcessWatchdog(
       ProcessDomainRepository processDomainRepository,
       ProcessStatusChecker processStatusChecker,
-      ProcessStateMachine processStateMachine) {
+      ProcessStateMachine processStateMachine,
+      NodeRepository nodeMessageRepository,
+      WriteBehindStateStore stateStore,
+      @Named(SchedulerConstants.WATCHDOG_PARALLELISM) int parallelism,
+      @Named(SchedulerConstants.WATCHDOG_QUERY_TIMEOUT) long queryTimeout,
+      @Named(SchedulerConstants.WATCHDOG_SWEEP_TIMEOUT) long sweepTimeout) {
     this.processDomainRepository = processDomainRepository;
     this.processStatusChecker = processStatusChecker;
     this.processStateMachine = processStateMachine;
+    this.nodeMessageRepository = nodeMessageRepository;
+    this.stateStore = stateStore;
+    this.queryTimeout = queryTimeout;
+    this.sweepTimeout = sweepTimeout;
+    this.executor = new LoggingThreadPoolExecutor(parallelism, parallelism, 60L,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    executor.allowCoreThreadTimeOut(true);
+    MoreExecutors.addDelayedShutdownHook(executor, 1, TimeUnit.MINUTES);
   }
 
   @Override
@@ -66,63 +117,156 @@ public class ProcessWatchdog implements Schedulable {
 
   @Transactional
   List<CloudiatorProcess> getProcesses() {
-    return processDomainRepository.getAll();
+    return processDomainRepository.getByState(ProcessState.RUNNING);
+  }
+
+  private static String groupKey(CloudiatorProcess cloudiatorProcess) {
+    return cloudiatorProcess.userId() + ":" + Joiner.on(",")
+        .join(new TreeSet<>(cloudiatorProcess.nodes()));
   }
 
   @Override
   public void run() {
 
-    final List<CloudiatorProcess> processes = getProcesses();
-    LOGGER.info(
-        String.format("%s is starting a new run, watching %s process(es)", this, processes.size()));
+    final Stopwatch stopwatch = Stopwatch.createStarted();
 
     try {
 
-      for (CloudiatorProcess cloudiatorProcess : processes) {
-
-        //only check running processes
-        if (cloudiatorProcess.state().equals(ProcessState.RUNNING)) {
-
-          LOGGER
-              .debug(String.format("%s is checking state of process %s.", this, cloudiatorProcess));
+      //compare the remote state with the latest local state
+      stateStore.flush();
+      final List<CloudiatorProcess> processes = getProcesses();
 
-          try {
-            final ProcessStatus processStatus = processStatusChecker.checkState(cloudiatorProcess);
+      final Map<String, List<CloudiatorProcess>> groups = processes.stream()
+          .collect(Collectors.groupingBy(ProcessWatchdog::groupKey, LinkedHashMap::new,
+              Collectors.toList()));
 
-            if (!processStatus.processState().equals(cloudiatorProcess.state())) {
+      LOGGER.info(
+          String.format("%s is starting a new run, watching %s process(es) on %s node group(s).",
+              this, processes.size(), groups.size()));
 
-              LOGGER.warn(String.format(
-                  "Remote process state %s is different from local process state %s. Updating the state.",
-                  processStatus.processState(), cloudiatorProcess.state()));
-
-              if (processStatus.processState().equals(ProcessState.ERROR)) {
-                processStateMachine.fail(cloudiatorProcess, null,
-                    new IllegalStateException(processStatus.information().orElse(null)));
-              } else {
-                processStateMachine.apply(cloudiatorProcess, processStatus.processState(), null);
-              }
-
-            } else {
-              LOGGER.debug(
-                  String.format("State of process %s is correctly registered.", cloudiatorProcess));
-            }
+      final Map<String, Map<String, Node>> nodes = resolveNodes(processes);
 
+      final List<Callable<Boolean>> checks = new ArrayList<>(processes.size());
+      for (List<CloudiatorProcess> group : groups.values()) {
+        for (CloudiatorProcess cloudiatorProcess : group) {
+          final Map<String, Node> userNodes = nodes.get(cloudiatorProcess.userId());
+          if (userNodes != null) {
+            checks.add(() -> checkProcess(cloudiatorProcess, userNodes));
+          }
+        }
+      }
 
-          } catch (ResponseException e) {
-            LOGGER.warn(String
-                .format("Error %s while checking state of process %s. Ignoring.", e.getMessage(),
-                    cloudiatorProcess), e);
+      int checked = 0;
+      int unfinished = 0;
+      for (Future<Boolean> future : executor
+          .invokeAll(checks, sweepTimeout, TimeUnit.MILLISECONDS)) {
+        try {
+          if (future.get()) {
+            checked++;
           }
+        } catch (CancellationException e) {
+          unfinished++;
+        } catch (ExecutionException e) {
+          LOGGER.warn(String
+              .format("%s encountered unexpected error %s while checking a process.", this,
+                  e.getCause().getMessage()), e.getCause());
         }
       }
+
+      if (unfinished > 0) {
+        LOGGER.warn(String.format(
+            "%s could not check %s process(es) within the sweep timeout of %s ms. They will be checked during the next run.",
+            this, unfinished, sweepTimeout));
+      }
+
+      LOGGER.info(String
+          .format("%s has finished its run, checked %s of %s process(es) in %s ms.", this,
+              checked, processes.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+
+    } catch (InterruptedException e) {
+      LOGGER.warn(String.format("%s was interrupted while waiting for its run.", this));
+      Thread.currentThread().interrupt();
     } catch (Exception e) {
       LOGGER.warn(String
           .format("%s encountered unexpected error %s. Caught to allow further execution.", this,
               e.getMessage()), e);
     }
+  }
+
+  /**
+   * Resolves the nodes of all processes with at most one request per user.
+   *
+   * @return the found nodes by their id, grouped by user. Users whose nodes could not be resolved
+   * are missing.
+   */
+  private Map<String, Map<String, Node>> resolveNodes(List<CloudiatorProcess> processes) {
+
+    final Map<String, Set<String>> nodeIds = new LinkedHashMap<>();
+    for (CloudiatorProcess cloudiatorProcess : processes) {
+      nodeIds.computeIfAbsent(cloudiatorProcess.userId(), userId -> new LinkedHashSet<>())
+          .addAll(cloudiatorProcess.nodes());
+    }
 
-    LOGGER.info(String.format("%s has finished its run", this));
+    final Map<String, Map<String, Node>> nodes = new HashMap<>(nodeIds.size());
+    for (Map.Entry<String, Set<String>> entry : nodeIds.entrySet()) {
+      try {
+        nodes.put(entry.getKey(),
+            nodeMessageRepository.getByIds(entry.getKey(), entry.getValue()));
+      } catch (Exception e) {
+        LOGGER.warn(String.format(
+            "%s could not resolve the nodes of user %s due to error %s. Skipping the processes of the user.",
+            this, entry.getKey(), e.getMessage()), e);
+      }
+    }
+    return nodes;
+  }
+
+  private boolean checkProcess(CloudiatorProcess cloudiatorProcess,
+      Map<String, Node> userNodes) {
+
+    final List<Node> nodes = new ArrayList<>(cloudiatorProcess.nodes().size());
+    for (String nodeId : cloudiatorProcess.nodes()) {
+      final Node node = userNodes.get(nodeId);
+      if (node == null) {
+        LOGGER.warn(String
+            .format("Node %s of process %s does not exist. Skipping.", nodeId,
+                cloudiatorProcess));
+        return false;
+      }
+      nodes.add(node);
+    }
+
+    LOGGER
+        .debug(String.format("%s is checking state of process %s.", this, cloudiatorProcess));
+
+    try {
+      final ProcessStatus processStatus = processStatusChecker
+          .checkState(cloudiatorProcess, nodes, queryTimeout);
+
+      if (!processStatus.processState().equals(cloudiatorProcess.state())) {
+
+        LOGGER.warn(String.format(
+            "Remote process state %s is different from local process state %s. Updating the state.",
+            processStatus.processState(), cloudiatorProcess.state()));
+
+        if (processStatus.processState().equals(ProcessState.ERROR)) {
+          processStateMachine.fail(cloudiatorProcess, null,
+              new IllegalStateException(processStatus.information().orElse(null)));
+        } else {
+          processStateMachine.apply(cloudiatorProcess, processStatus.processState(), null);
+        }
 
+      } else {
+        LOGGER.debug(
+            String.format("State of process %s is correctly registered.", cloudiatorProcess));
+      }
+
+    } catch (ResponseException e) {
+      LOGGER.warn(String
+          .format("Error %s while checking state of process %s. Ignoring.", e.getMessage(),
+              cloudiatorProcess), e);
+    }
+    return true;
   }
 
   @Override
@@ -43,10 +43,10 @@ import io.github.cloudiator.deployment.scheduler.instantiation.InstantiationExce
 import io.github.cloudiator.deployment.scheduler.instantiation.MatchmakingEngine;
 import io.github.cloudiator.deployment.scheduler.instantiation.ResourcePool;
 import io.github.cloudiator.deployment.scheduler.instantiation.TaskInterfaceSelection;
+import io.github.cloudiator.deployment.scheduler.messaging.NodeRepository;
 import io.github.cloudiator.deployment.scheduler.processes.ProcessKiller;
 import io.github.cloudiator.domain.Node;
 import io.github.cloudiator.domain.NodeCandidate;
-import io.github.cloudiator.messaging.NodeMessageRepository;
 import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import io.github.cloudiator.persistance.ProcessDomainRepository;
 import io.github.cloudiator.persistance.ScheduleDomainRepository;
@@ -55,6 +55,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -75,7 +76,7 @@ public class ScalingEngine {
   private final AutomaticInstantiationStrategy automaticInstantiationStrategy;
   private final MatchmakingEngine matchmakingEngine;
   private final ScheduleDomainRepository scheduleDomainRepository;
-  private final NodeMessageRepository nodeMessageRepository;
+  private final NodeRepository nodeMessageRepository;
   private final ResourcePool resourcePool;
   private final ProcessDomainRepository processDomainRepository;
   private final ProcessService processService;
@@ -86,7 +87,7 @@ public class ScalingEngine {
       AutomaticInstantiationStrategy automaticInstantiationStrategy,
       MatchmakingEngine matchmakingEngine,
       ScheduleDomainRepository scheduleDomainRepository,
-      NodeMessageRepository nodeMessageRepository,
+      NodeRepository nodeMessageRepository,
       ResourcePool resourcePool,
       ProcessDomainRepository processDomainRepository,
       ProcessService processService,
@@ -282,17 +283,20 @@ public class ScalingEngine {
     final Set<CloudiatorProcess> cloudiatorProcesses = schedule.processesForTask(task);
 
     //get existing nodes
-    final Set<Node> nodes = cloudiatorProcesses.stream()
+    final Set<String> nodeIds = cloudiatorProcesses.stream()
         .flatMap(
             (Function<CloudiatorProcess, Stream<String>>) cloudiatorProcess -> cloudiatorProcess
-                .nodes().stream()).map(
-            s -> {
-              final Node node = nodeMessageRepository.getById(checkedSchedule.userId(), s);
-              if (node == null) {
-                throw new IllegalStateException(String.format("Node with id %s does not exist", s));
-              }
-              return node;
-            }).collect(Collectors.toSet());
+                .nodes().stream()).collect(Collectors.toSet());
+    final Map<String, Node> nodesById = nodeMessageRepository
+        .getByIds(checkedSchedule.userId(), nodeIds);
+    final Set<Node> nodes = nodeIds.stream().map(
+        s -> {
+          final Node node = nodesById.get(s);
+          if (node == null) {
+            throw new IllegalStateException(String.format("Node with id %s does not exist", s));
+          }
+          return node;
+        }).collect(Collectors.toSet());
 
     //perform matchmaking
     final List<NodeCandidate> matchmaking = matchmakingEngine
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.statistics;
+
+import com.google.common.cache.CacheStats;
+import de.uniulm.omi.cloudiator.util.statistics.MetricBuilder;
+import de.uniulm.omi.cloudiator.util.statistics.StatisticInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JobCacheStatistics {
+
+  private final StatisticInterface statisticsInterface;
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobCacheStatistics.class);
+
+  public JobCacheStatistics(
+      StatisticInterface statisticsInterface) {
+    this.statisticsInterface = statisticsInterface;
+  }
+
+  public void cacheStats(CacheStats cacheStats, long size) {
+
+    try {
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("job-cache-hits").value(cacheStats.hitCount()).now()
+              .build());
+
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("job-cache-misses").value(cacheStats.missCount()).now()
+              .build());
+
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("job-cache-evictions").value(cacheStats.evictionCount())
+              .now().build());
+
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("job-cache-size").value(size).now().build());
+
+    } catch (Exception e) {
+      LOGGER.warn("Error while reporting statistics for the job cache.");
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.statistics;
+
+import de.uniulm.omi.cloudiator.util.statistics.MetricBuilder;
+import de.uniulm.omi.cloudiator.util.statistics.StatisticInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class QueueStatistics {
+
+  private final StatisticInterface statisticsInterface;
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueueStatistics.class);
+
+  public QueueStatistics(
+      StatisticInterface statisticsInterface) {
+    this.statisticsInterface = statisticsInterface;
+  }
+
+  public void requestHandled(String queue, int shard, long depth, long waitTime,
+      long serviceTime) {
+
+    try {
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("request-queue-depth").value(depth).now()
+              .addTag("queue", queue).build());
+
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("request-queue-wait-time").value(waitTime).now()
+              .addTag("queue", queue).addTag("shard", String.valueOf(shard)).build());
+
+      statisticsInterface.reportMetric(
+          MetricBuilder.create().name("request-queue-service-time").value(serviceTime).now()
+              .addTag("queue", queue).addTag("shard", String.valueOf(shard)).build());
+
+    } catch (Exception e) {
+      LOGGER.warn("Error while reporting statistics for queue " + queue);
+    }
+
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.instantiation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import org.junit.Test;
+
+public class ScheduleConcurrencyLimiterTest {
+
+  @Test
+  public void queuedOperationsStartOnExecutor() {
+    final Queue<Runnable> executed = new ArrayDeque<>();
+    final ScheduleConcurrencyLimiter limiter = new ScheduleConcurrencyLimiter(1, executed::add);
+
+    final List<SettableFuture<String>> operations = new ArrayList<>();
+    final List<ListenableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final SettableFuture<String> operation = SettableFuture.create();
+      operations.add(operation);
+      results.add(limiter.submit("schedule", () -> operation));
+    }
+
+    operations.get(0).set("first");
+    assertThat(results.get(0).isDone(), equalTo(true));
+    //the next operation is handed to the executor instead of running on this thread
+    assertThat(results.get(1).isDone(), equalTo(false));
+    assertThat(executed.size(), equalTo(1));
+
+    executed.poll().run();
+    operations.get(1).set("second");
+    operations.get(2).set("third");
+    assertThat(results.get(2).isDone(), equalTo(false));
+
+    executed.poll().run();
+    assertThat(results.get(1).isDone(), equalTo(true));
+    assertThat(results.get(2).isDone(), equalTo(true));
+    assertThat(executed.isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void schedulesAreLimitedIndependently() {
+    final Queue<Runnable> executed = new ArrayDeque<>();
+    final ScheduleConcurrencyLimiter limiter = new ScheduleConcurrencyLimiter(1, executed::add);
+
+    final SettableFuture<String> first = SettableFuture.create();
+    final SettableFuture<String> second = SettableFuture.create();
+    final ListenableFuture<String> firstResult = limiter.submit("first", () -> first);
+    final ListenableFuture<String> secondResult = limiter.submit("second", () -> second);
+
+    second.set("second");
+    assertThat(secondResult.isDone(), equalTo(true));
+    assertThat(firstResult.isDone(), equalTo(false));
+    assertThat(executed.isEmpty(), equalTo(true));
+  }
+
+}
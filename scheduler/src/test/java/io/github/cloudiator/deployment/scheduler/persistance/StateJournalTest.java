@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014-2019 University of Ulm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.cloudiator.deployment.scheduler.persistance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.cloudiator.messages.entities.ProcessEntities.Process;
+import org.junit.Test;
+
+public class StateJournalTest {
+
+  private static class RecordingVisitor implements StateJournal.RecordVisitor {
+
+    private final List<String> records = new ArrayList<>();
+
+    @Override
+    public void process(Process process) {
+      records.add("process:" + process.getId());
+    }
+
+    @Override
+    public void processDeleted(String processId) {
+      records.add("deleted:" + processId);
+    }
+
+    @Override
+    public void scheduleState(String scheduleId, String userId, String state) {
+      records.add("schedule:" + scheduleId + ":" + state);
+    }
+
+    @Override
+    public void scheduleDeleted(String scheduleId) {
+      records.add("scheduleDeleted:" + scheduleId);
+    }
+  }
+
+  private static Process process(String id) {
+    //a long diagnostic, so truncating the last bytes cuts the message body
+    return Process.newBuilder().setId(id).setDiagnostic(Strings.repeat("x", 100)).build();
+  }
+
+  private static Path writeSegment(StateJournal journal) throws IOException {
+    journal.appendScheduleState("schedule", "user", "RUNNING");
+    journal.appendProcess(process("first"));
+    journal.appendProcessDeleted("deleted");
+    journal.appendScheduleDeleted("schedule");
+    journal.appendProcess(process("second"));
+    return journal.rotate();
+  }
+
+  @Test
+  public void replay() throws IOException {
+    final StateJournal journal = new StateJournal(Files.createTempDirectory("journal"));
+    final Path segment = writeSegment(journal);
+
+    final RecordingVisitor visitor = new RecordingVisitor();
+    StateJournal.replay(segment, visitor);
+
+    assertThat(visitor.records,
+        contains("schedule:schedule:RUNNING", "process:first", "deleted:deleted",
+            "scheduleDeleted:schedule", "process:second"));
+    assertThat(journal.segments(), contains(segment));
+  }
+
+  @Test
+  public void replayTruncatedSegment() throws IOException {
+    final StateJournal journal = new StateJournal(Files.createTempDirectory("journal"));
+    final Path segment = writeSegment(journal);
+
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 10);
+    }
+
+    final RecordingVisitor visitor = new RecordingVisitor();
+    StateJournal.replay(segment, visitor);
+
+    assertThat(visitor.records,
+        contains("schedule:schedule:RUNNING", "process:first", "deleted:deleted",
+            "scheduleDeleted:schedule"));
+  }
+
+  @Test
+  public void sequenceContinuesAfterRestart() throws IOException {
+    final Path directory = Files.createTempDirectory("journal");
+    final Path first = writeSegment(new StateJournal(directory));
+    final Path second = writeSegment(new StateJournal(directory));
+
+    assertThat(new StateJournal(directory).segments(), contains(first, second));
+    assertThat(first.equals(second), equalTo(false));
+  }
+
+}
@@ -1,9 +1,11 @@
 package io.github.cloudiator.deployment.spark;
 
-import com.google.gson.Gson;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.domain.Identifiable;
-import de.uniulm.omi.cloudiator.util.configuration.Configuration;
 import io.github.cloudiator.deployment.config.Constants;
 import io.github.cloudiator.deployment.domain.CloudiatorClusterProcessBuilder;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess;
@@ -11,35 +13,24 @@ import io.github.cloudiator.deployment.domain.CloudiatorProcess.ProcessState;
 import io.github.cloudiator.deployment.domain.CloudiatorProcess.Type;
 import io.github.cloudiator.deployment.domain.SparkInterface;
 import io.github.cloudiator.deployment.domain.Task;
+import io.github.cloudiator.deployment.messaging.NodeInstallationCache;
 import io.github.cloudiator.domain.Node;
-import io.github.cloudiator.messaging.NodeToNodeMessageConverter;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import javax.inject.Named;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicResponseHandler;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.cloudiator.messages.Installation.InstallationRequest;
-import org.cloudiator.messages.Installation.InstallationResponse;
-import org.cloudiator.messages.InstallationEntities.Installation;
-import org.cloudiator.messages.InstallationEntities.Installation.Builder;
 import org.cloudiator.messages.InstallationEntities.Tool;
-import org.cloudiator.messaging.SettableFutureResponseCallback;
-import org.cloudiator.messaging.services.InstallationRequestService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,8 +41,6 @@ public class CreateSparkProcessStrategy {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CreateSparkProcessStrategy.class);
 
-  private static final NodeToNodeMessageConverter NODE_MESSAGE_CONVERTER = NodeToNodeMessageConverter.INSTANCE;
-
   private static final String SPARK_ARGUMENT_DELIMITER = ",";
 
 
@@ -72,119 +61,121 @@ public class CreateSparkProcessStrategy {
   private static final String SPARK_FILESERVER_PORT = "38400";
   private static final String SPARK_REPLCASSSERVER_PORT = "38500";
 
-  private InstallationRequestService installationRequestService;
+  private final NodeInstallationCache nodeInstallationCache;
+  private final LivyClient livyClient;
+  private final LivyBatchStatePoller livyBatchStatePoller;
 
   @Named(Constants.INSTALL_MELODIC_TOOLS)
   @Inject(optional = true)
   boolean installMelodicTools = false;
 
+  @Named(Constants.SPARK_INSTALL_PARALLELISM)
+  @Inject(optional = true)
+  int installParallelism = 10;
+
   @Inject
-  CreateSparkProcessStrategy(InstallationRequestService installationRequestService) {
-    this.installationRequestService = installationRequestService;
+  CreateSparkProcessStrategy(NodeInstallationCache nodeInstallationCache,
+      LivyClient livyClient, LivyBatchStatePoller livyBatchStatePoller) {
+    this.nodeInstallationCache = nodeInstallationCache;
+    this.livyClient = livyClient;
+    this.livyBatchStatePoller = livyBatchStatePoller;
   }
 
 
   private void installSparkWorkers(String userId, Set<Node> nodes) {
 
-    for (Node node : nodes) {
-
-      //TODO: trigger sync install request and check if installation was successfull
-      LOGGER.debug("Installing Docker and Spark Worker on node: " + node.id());
-
-      final Builder builder = Installation.newBuilder()
-          .setNode(NODE_MESSAGE_CONVERTER.apply(node))
-          .addTool(Tool.DOCKER)
-          .addTool(Tool.SPARK_WORKER);
+    final Set<Tool> tools = EnumSet.of(Tool.DOCKER, Tool.SPARK_WORKER);
 
-      if (installMelodicTools) {
-        builder
-            .addTool(Tool.ALLUXIO_CLIENT)
-            .addTool(Tool.DLMS_AGENT);
-      }
-
-      final InstallationRequest installationRequest = InstallationRequest.newBuilder()
-          .setUserId(userId).setInstallation(builder.build()).build();
-
-      final SettableFutureResponseCallback<InstallationResponse, InstallationResponse> futureResponseCallback = SettableFutureResponseCallback
-          .create();
-
-      installationRequestService
-          .createInstallationRequestAsync(installationRequest, futureResponseCallback);
-      try {
-        futureResponseCallback.get();
-      } catch (InterruptedException e) {
-        throw new IllegalStateException(
-            "Docker and Spark Worker  installation was interrupted during installation request.",
-            e);
-      } catch (ExecutionException e) {
-        throw new IllegalStateException("Error during Docker and Spark Worker installation",
-            e.getCause());
-      }
+    if (installMelodicTools) {
+      tools.add(Tool.ALLUXIO_CLIENT);
+      tools.add(Tool.DLMS_AGENT);
+    }
 
-      LOGGER.debug("Finished Docker and Spark Worker installation on node: " + node.id());
+    //every lane installs one node after the other, at most installParallelism nodes at once
+    final Queue<Node> pending = new ConcurrentLinkedQueue<>(nodes);
+    final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    final List<ListenableFuture<Void>> lanes = new ArrayList<>();
+    for (int i = 0; i < Math.min(Math.max(installParallelism, 1), nodes.size()); i++) {
+      lanes.add(installNextSparkWorker(userId, tools, pending, failures));
     }
 
+    try {
+      Futures.allAsList(lanes).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Docker and Spark Worker  installation was interrupted during installation request.",
+          e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Error during Docker and Spark Worker installation",
+          e.getCause());
+    }
 
+    if (!failures.isEmpty()) {
+      final IllegalStateException exception = new IllegalStateException(String
+          .format("Docker and Spark Worker installation failed on %s of %s nodes: %s",
+              failures.size(), nodes.size(), failures.keySet()));
+      failures.values().forEach(exception::addSuppressed);
+      throw exception;
+    }
   }
 
+  private ListenableFuture<Void> installNextSparkWorker(String userId, Set<Tool> tools,
+      Queue<Node> pending, Map<String, Throwable> failures) {
 
-  private void submitSparkProcessToLivy(SparkInterface sparkInterface) {
-
-    //find SparkInterface
-    LOGGER.debug("Submitting Spark process to Livy Server...");
-
-    //execute HTTP POST call to Livy Server
-    ResponseHandler<String> handler = new BasicResponseHandler();
-
-    CloseableHttpClient client = HttpClients.createDefault();
-
-    HttpPost httpPost = new HttpPost(
-        "http://" + Configuration.conf().getString("livy.server") + "/batches");
+    final Node node = pending.poll();
+    if (node == null) {
+      return Futures.immediateFuture(null);
+    }
 
-    LivyBatch livyBatch = buildLivyBatch(sparkInterface);
+    LOGGER.debug("Installing Docker and Spark Worker on node: " + node.id());
+    final long start = System.currentTimeMillis();
 
-    Gson gson = new Gson();
+    final ListenableFuture<?> installation = nodeInstallationCache.install(userId, node, tools);
 
-    String payload = gson.toJson(livyBatch);
+    Futures.addCallback(installation, new FutureCallback<Object>() {
+      @Override
+      public void onSuccess(Object result) {
+        LOGGER.info(String
+            .format("Finished Docker and Spark Worker installation on node %s in %s ms.",
+                node.id(), System.currentTimeMillis() - start));
+      }
 
-    StringEntity entity = null;
-    try {
-      entity = new StringEntity(payload);
+      @Override
+      public void onFailure(Throwable t) {
+        LOGGER.error(String
+            .format("Docker and Spark Worker installation on node %s failed after %s ms.",
+                node.id(), System.currentTimeMillis() - start), t);
+        failures.put(node.id(), t);
+      }
+    }, MoreExecutors.directExecutor());
 
-      httpPost.setEntity(entity);
-      httpPost.setHeader("Content-type", "application/json");
+    return Futures.transformAsync(Futures.successfulAsList(installation),
+        ignored -> installNextSparkWorker(userId, tools, pending, failures),
+        MoreExecutors.directExecutor());
+  }
 
-      LOGGER.debug("HttpPost: " + httpPost.toString());
-      LOGGER.debug("Submit Spark process to Livy Server payload: " + payload);
 
-      CloseableHttpResponse response = client.execute(httpPost);
+  private int submitSparkProcessToLivy(SparkInterface sparkInterface) {
 
-      int code = response.getStatusLine().getStatusCode();
+    //find SparkInterface
+    LOGGER.debug("Submitting Spark process to Livy Server...");
 
-      if (code != HttpStatus.SC_CREATED) {
-        throw new IllegalStateException(
-            "Submission of Spark process to livy faild with response code: " + code);
-      }
+    LivyBatch livyBatch = buildLivyBatch(sparkInterface);
 
-      //TODO: get appId from response (as soon as Livy bug is fixed and appId is properly set)
-      String body = handler.handleResponse(response);
-      client.close();
+    try {
+      final int batchId = livyClient.submit(livyBatch);
+      livyBatchStatePoller.track(batchId);
 
-      LOGGER.debug("Successfully submitted Spark Process to Livy Server!");
+      LOGGER.debug(String
+          .format("Successfully submitted Spark Process to Livy Server as batch %s!", batchId));
 
+      return batchId;
 
-    } catch (UnsupportedEncodingException e) {
-      LOGGER.error("Error while creating HTTP Post payload for Livy Server call!", e);
-      throw new IllegalStateException("Error while submitting Spark Process to Livy Server!");
-    } catch (ClientProtocolException e) {
-      LOGGER.error("Error while executing HTTP Post call to Livy Server!", e);
-      throw new IllegalStateException("Error while submitting Spark Process to Livy Server!");
     } catch (IOException e) {
-      LOGGER.error("Error while handling HTTP Post response from Livy Server!", e);
+      LOGGER.error("Error while executing HTTP Post call to Livy Server!", e);
       throw new IllegalStateException("Error while submitting Spark Process to Livy Server!");
     }
-
-
   }
 
   private static LivyBatch buildLivyBatch(SparkInterface sparkInterface) {
@@ -375,15 +366,15 @@ public class CreateSparkProcessStrategy {
     try {
 
       LOGGER.debug("Triggering Spark Process submission to Livy Server...");
-      this.submitSparkProcessToLivy(sparkInterface);
+      final int batchId = this.submitSparkProcessToLivy(sparkInterface);
 
-      //TODO: get Livy Batch ID from Livy Server as soon as this is fixed in Livy or YARN is enabled
-      //using temporary UUID meanwhile
+      //TODO: get appId from Livy Server as soon as this is fixed in Livy or YARN is enabled
+      //the livy batch id is used as origin id meanwhile, it is needed for status queries
       UUID uuid = UUID.randomUUID();
       String temporarySparkProcessUid = uuid.toString();
 
       return CloudiatorClusterProcessBuilder.create().id(temporarySparkProcessUid)
-          .originId(temporarySparkProcessUid)
+          .originId(String.valueOf(batchId))
           .userId(userId)
           .type(Type.SPARK)
           .taskInterface(SparkInterface.class.getCanonicalName())
@@ -0,0 +1,58 @@
+package io.github.cloudiator.deployment.spark;
+
+import org.cloudiator.messages.entities.ProcessEntities.ProcessState;
+
+/**
+ * Maps the batch states reported by Livy to process states.
+ */
+public class LivyBatchState {
+
+  /**
+   * State used for batches Livy does not report (anymore).
+   */
+  public static final String UNKNOWN = "unknown";
+
+  private LivyBatchState() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  /**
+   * @param livyState a batch state reported by Livy
+   * @return true if the batch will not change its state anymore
+   */
+  public static boolean isTerminal(String livyState) {
+    switch (livyState) {
+      case "success":
+      case "error":
+      case "dead":
+      case "killed":
+      case UNKNOWN:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public static ProcessState toProcessState(String livyState) {
+
+    switch (livyState) {
+      case "not_started":
+      case "starting":
+      case "recovering":
+        return ProcessState.PROCESS_STATE_PENDING;
+      case "idle":
+      case "running":
+      case "busy":
+      case "shutting_down":
+        return ProcessState.PROCESS_STATE_RUNNING;
+      case "success":
+        return ProcessState.PROCESS_STATE_FINISHED;
+      case "error":
+      case "dead":
+      case "killed":
+      case UNKNOWN:
+      default:
+        return ProcessState.PROCESS_STATE_ERROR;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.github.cloudiator.deployment.spark;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.execution.LoggingScheduledThreadPoolExecutor;
+import io.github.cloudiator.deployment.config.Constants;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the state of all tracked Livy batches. The states are refreshed periodically by one
+ * listing of all batches, independent of the number of tracked batches, so status queries are
+ * answered from memory. The interval is configured by {@link Constants#SPARK_POLL_INTERVAL}.
+ * Batches that reached a terminal state are no longer polled, their final state is kept for
+ * {@link #TERMINAL_STATE_RETENTION} minutes.
+ */
+@Singleton
+public class LivyBatchStatePoller {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LivyBatchStatePoller.class);
+  private static final long TERMINAL_STATE_RETENTION = 60;
+
+  private final LivyClient livyClient;
+  private final Set<Integer> tracked = ConcurrentHashMap.newKeySet();
+  private final Map<Integer, String> states = new ConcurrentHashMap<>();
+  /**
+   * tracked batches missing from the last listing, only accessed by the polling thread
+   */
+  private final Set<Integer> missing = ConcurrentHashMap.newKeySet();
+  private final Cache<Integer, String> terminalStates = CacheBuilder.newBuilder()
+      .expireAfterWrite(TERMINAL_STATE_RETENTION, TimeUnit.MINUTES).build();
+  private final LoggingScheduledThreadPoolExecutor executor;
+
+  @Inject
+  public LivyBatchStatePoller(LivyClient livyClient,
+      @Named(Constants.SPARK_POLL_INTERVAL) long pollInterval) {
+    this.livyClient = livyClient;
+    this.executor = new LoggingScheduledThreadPoolExecutor(1);
+    MoreExecutors.addDelayedShutdownHook(executor, 1, TimeUnit.MINUTES);
+    executor.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts tracking the state of the batch, if it is not already tracked and did not already
+   * reach a terminal state.
+   *
+   * @param batchId the id of the batch
+   */
+  public void track(int batchId) {
+    if (terminalStates.getIfPresent(batchId) == null) {
+      tracked.add(batchId);
+    }
+  }
+
+  /**
+   * @param batchId the id of the batch
+   * @return the last known state of the batch, empty if it was not retrieved yet
+   */
+  public Optional<String> state(int batchId) {
+    final String state = states.get(batchId);
+    if (state != null) {
+      return Optional.of(state);
+    }
+    return Optional.ofNullable(terminalStates.getIfPresent(batchId));
+  }
+
+  private void poll() {
+
+    if (tracked.isEmpty()) {
+      return;
+    }
+
+    try {
+      final Map<Integer, String> batchStates = livyClient.batchStates();
+
+      for (Integer batchId : tracked) {
+        String state = batchStates.get(batchId);
+        if (state == null) {
+          //the listing is paged, a batch can be missed once if older batches are pruned
+          //meanwhile, so only a batch missing twice in a row is considered dropped
+          if (missing.add(batchId)) {
+            continue;
+          }
+          //livy dropped the batch, e.g. due to a restart
+          LOGGER.warn(String.format("Livy does no longer know batch %s.", batchId));
+          state = LivyBatchState.UNKNOWN;
+        }
+        missing.remove(batchId);
+
+        if (LivyBatchState.isTerminal(state)) {
+          terminalStates.put(batchId, state);
+          tracked.remove(batchId);
+          states.remove(batchId);
+        } else {
+          states.put(batchId, state);
+        }
+      }
+
+      LOGGER.debug(String.format("Refreshed state of %s livy batches.", tracked.size()));
+
+    } catch (Exception e) {
+      LOGGER.error(String.format("Could not refresh state of livy batches: %s", e.getMessage()),
+          e);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package io.github.cloudiator.deployment.spark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import io.github.cloudiator.deployment.config.Constants;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Named;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client for the REST interface of the Livy server. All calls share one pooled connection
+ * manager, so connections to Livy are kept alive and reused. Requests time out after the
+ * configured connect and socket timeouts, so an unresponsive server can not block the callers.
+ */
+@Singleton
+public class LivyClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LivyClient.class);
+  private static final Gson GSON = new Gson();
+  private static final int MAX_CONNECTIONS = 20;
+  /**
+   * Number of batches requested per page of the listing.
+   */
+  private static final int BATCH_PAGE_SIZE = 1000;
+
+  private final String baseUrl;
+  private final CloseableHttpClient client;
+
+  @Inject
+  public LivyClient(@Named(Constants.SPARK_LIVY_CONNECT_TIMEOUT) int connectTimeout,
+      @Named(Constants.SPARK_LIVY_SOCKET_TIMEOUT) int socketTimeout) {
+    this("http://" + Configuration.conf().getString("livy.server"), connectTimeout,
+        socketTimeout);
+  }
+
+  LivyClient(String baseUrl, int connectTimeout, int socketTimeout) {
+    this.baseUrl = baseUrl;
+    //waiting for a pooled connection is bounded by the connect timeout as well
+    final RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(connectTimeout)
+        .setConnectionRequestTimeout(connectTimeout)
+        .setSocketTimeout(socketTimeout).build();
+    final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+        60, TimeUnit.SECONDS);
+    connectionManager.setMaxTotal(MAX_CONNECTIONS);
+    connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+    this.client = HttpClients.custom().setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig).build();
+  }
+
+  /**
+   * Submits a new batch.
+   *
+   * @param livyBatch the batch to submit
+   * @return the id Livy assigned to the batch
+   * @throws IOException if the batch could not be submitted
+   */
+  public int submit(LivyBatch livyBatch) throws IOException {
+
+    final HttpPost httpPost = new HttpPost(baseUrl + "/batches");
+    final String payload = GSON.toJson(livyBatch);
+    httpPost.setEntity(new StringEntity(payload, ContentType.APPLICATION_JSON));
+
+    LOGGER.debug("HttpPost: " + httpPost.toString());
+    LOGGER.debug("Submit Spark process to Livy Server payload: " + payload);
+
+    try (CloseableHttpResponse response = client.execute(httpPost)) {
+      final int code = response.getStatusLine().getStatusCode();
+      //always consume the body, otherwise the connection is not returned to the pool
+      final String body = EntityUtils.toString(response.getEntity());
+
+      if (code != HttpStatus.SC_CREATED) {
+        throw new IllegalStateException(
+            "Submission of Spark process to livy faild with response code: " + code);
+      }
+
+      return new JsonParser().parse(body).getAsJsonObject().get("id").getAsInt();
+    }
+  }
+
+  /**
+   * Retrieves the state of all batches known to Livy, paging through the listing.
+   *
+   * @return the state of each batch, indexed by the batch id
+   * @throws IOException if the batches could not be retrieved
+   */
+  public Map<Integer, String> batchStates() throws IOException {
+
+    final Map<Integer, String> states = new HashMap<>();
+    int from = 0;
+    while (true) {
+      final JsonObject page = batchPage(from);
+      final JsonArray sessions = page.getAsJsonArray("sessions");
+      if (sessions == null || sessions.size() == 0) {
+        return states;
+      }
+
+      for (JsonElement session : sessions) {
+        final JsonObject batch = session.getAsJsonObject();
+        states.put(batch.get("id").getAsInt(), batch.get("state").getAsString());
+      }
+
+      from += sessions.size();
+      if (!page.has("total") || from >= page.get("total").getAsInt()) {
+        return states;
+      }
+    }
+  }
+
+  private JsonObject batchPage(int from) throws IOException {
+
+    final HttpGet httpGet = new HttpGet(
+        baseUrl + "/batches?from=" + from + "&size=" + BATCH_PAGE_SIZE);
+
+    try (CloseableHttpResponse response = client.execute(httpGet)) {
+      final int code = response.getStatusLine().getStatusCode();
+      final String body = EntityUtils.toString(response.getEntity());
+
+      if (code != HttpStatus.SC_OK) {
+        throw new IllegalStateException(
+            "Retrieving batches from livy failed with response code: " + code);
+      }
+
+      return new JsonParser().parse(body).getAsJsonObject();
+    }
+  }
+}
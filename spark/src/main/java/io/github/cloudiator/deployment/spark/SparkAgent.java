@@ -4,6 +4,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import io.github.cloudiator.deployment.config.DeploymentContext;
 import io.github.cloudiator.deployment.config.DeploymentModule;
+import io.github.cloudiator.deployment.messaging.NodeInstallationCacheSubscriber;
 import org.cloudiator.messaging.kafka.KafkaContext;
 import org.cloudiator.messaging.kafka.KafkaMessagingModule;
 import org.cloudiator.messaging.services.MessageServiceModule;
@@ -23,6 +24,8 @@ public class SparkAgent  {
   public static void main(String[] args) {
     INJECTOR.getInstance(CreateSparkProcessSubscriber.class).run();
     INJECTOR.getInstance(CreateSparkClusterSubscriber.class).run();
+    INJECTOR.getInstance(SparkProcessStatusSubscriber.class).run();
+    INJECTOR.getInstance(NodeInstallationCacheSubscriber.class).run();
   }
 
 }
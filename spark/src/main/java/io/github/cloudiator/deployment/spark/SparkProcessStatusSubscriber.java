@@ -0,0 +1,80 @@
+package io.github.cloudiator.deployment.spark;
+
+import com.google.inject.Inject;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess;
+import io.github.cloudiator.deployment.domain.CloudiatorProcess.Type;
+import io.github.cloudiator.deployment.messaging.ProcessMessageConverter;
+import java.util.Optional;
+import org.cloudiator.messages.General.Error;
+import org.cloudiator.messages.Process.ProcessStatusQuery;
+import org.cloudiator.messages.Process.ProcessStatusResponse;
+import org.cloudiator.messages.entities.ProcessEntities.ProcessState;
+import org.cloudiator.messaging.MessageCallback;
+import org.cloudiator.messaging.MessageInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers status queries of spark processes from the batch states cached by the {@link
+ * LivyBatchStatePoller}.
+ */
+public class SparkProcessStatusSubscriber implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SparkProcessStatusSubscriber.class);
+  private final MessageInterface messageInterface;
+  private final LivyBatchStatePoller livyBatchStatePoller;
+
+  @Inject
+  public SparkProcessStatusSubscriber(MessageInterface messageInterface,
+      LivyBatchStatePoller livyBatchStatePoller) {
+    this.messageInterface = messageInterface;
+    this.livyBatchStatePoller = livyBatchStatePoller;
+  }
+
+  @Override
+  public void run() {
+
+    messageInterface.subscribe(ProcessStatusQuery.class, ProcessStatusQuery.parser(),
+        new MessageCallback<ProcessStatusQuery>() {
+          @Override
+          public void accept(String messageId, ProcessStatusQuery content) {
+
+            final CloudiatorProcess cloudiatorProcess = ProcessMessageConverter.INSTANCE
+                .apply(content.getProcess());
+
+            //check if this affects spark
+            if (!cloudiatorProcess.type().equals(Type.SPARK)) {
+              LOGGER.debug(String
+                  .format("Ignoring process status request %s as it does not affect spark.",
+                      content));
+              return;
+            }
+
+            final int batchId;
+            try {
+              batchId = Integer.parseInt(cloudiatorProcess.originId().orElseThrow(
+                  () -> new IllegalStateException("Spark process has no origin id.")));
+            } catch (Exception e) {
+              LOGGER.warn(String.format(
+                  "Process status requests %s contains illegal spark process.", content));
+              messageInterface.reply(ProcessStatusResponse.class, messageId,
+                  Error.newBuilder().setCode(500)
+                      .setMessage("Illegal spark process provided: " + e.getMessage()).build());
+              return;
+            }
+
+            //processes submitted before a restart of the agent are tracked on first query
+            livyBatchStatePoller.track(batchId);
+
+            final Optional<String> state = livyBatchStatePoller.state(batchId);
+            final ProcessStatusResponse.Builder builder = ProcessStatusResponse.newBuilder()
+                .setState(state.map(LivyBatchState::toProcessState)
+                    .orElse(ProcessState.PROCESS_STATE_PENDING));
+            state.ifPresent(
+                s -> builder.setInformation(String.format("Livy batch is in state %s.", s)));
+
+            messageInterface.reply(messageId, builder.build());
+          }
+        });
+  }
+}